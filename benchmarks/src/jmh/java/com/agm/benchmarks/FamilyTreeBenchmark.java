@@ -0,0 +1,84 @@
+package com.agm.benchmarks;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.PersonStorage;
+import com.badlogic.gdx.utils.IntArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Alta de personas y relaciones en FamilyTree y consultas por id y por handle. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FamilyTreeBenchmark {
+    private static final int LOOKUPS = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    @Param({"DEEP", "WIDE", "BALANCED", "REALISTIC"})
+    public TreeGenerator.Shape shape;
+
+    @Param({"HEAP", "COLUMNAR"})
+    public PersonStorage storage;
+
+    private GeneratedTree generated;
+    private FamilyTree tree;
+    private String[] lookupIds;
+    private int[] lookupHandles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generated = TreeGenerator.generate(shape, persons, 42);
+        tree = generated.build(storage);
+        Random rnd = new Random(7);
+        lookupIds = new String[LOOKUPS];
+        lookupHandles = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int handle = rnd.nextInt(persons);
+            lookupHandles[i] = handle;
+            lookupIds[i] = tree.idOf(handle);
+        }
+    }
+
+    /** Árbol completo desde cero: personas, relaciones e índices de adyacencia. */
+    @Benchmark
+    public FamilyTree insert() {
+        return generated.build(storage);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int lookupById() {
+        int sum = 0;
+        for (String id : lookupIds) {
+            Person p = tree.getPersonOrNull(id);
+            sum += p.getFirstName().length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int lookupByHandle() {
+        int sum = 0;
+        for (int handle : lookupHandles) sum += tree.getPersonByHandle(handle).getFirstName().length();
+        return sum;
+    }
+
+    /** Todos los hijos de todas las personas, como al reconstruir las conexiones. */
+    @Benchmark
+    public long childrenOfAll() {
+        long sum = 0;
+        for (int h = 0, n = tree.getHandleCount(); h < n; h++) {
+            IntArray children = tree.getChildren(h);
+            for (int i = 0; i < children.size; i++) sum += children.get(i);
+        }
+        return sum;
+    }
+}
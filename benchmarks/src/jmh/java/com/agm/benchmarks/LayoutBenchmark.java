@@ -0,0 +1,64 @@
+package com.agm.benchmarks;
+
+import com.agm.layout.TreeLayout;
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.PersonStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout completo (anchos de subárbol y posiciones) y actualización incremental tras añadir una hoja,
+ * con los mismos parámetros de separación que el editor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LayoutBenchmark {
+    private static final float LEAF_WIDTH = 75f * 2 + 50f;
+    private static final float VERTICAL_GAP = 75f * 2 + 100f;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    @Param({"DEEP", "WIDE", "BALANCED", "REALISTIC"})
+    public TreeGenerator.Shape shape;
+
+    private GeneratedTree generated;
+    private FamilyTree tree;
+    private TreeLayout layout;
+    private Random rnd;
+    private int added;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        generated = TreeGenerator.generate(shape, persons, 42);
+    }
+
+    /** Cada iteración parte del árbol generado: las hojas añadidas por incrementalAddLeaf no se acumulan. */
+    @Setup(Level.Iteration)
+    public void reset() {
+        tree = generated.build(PersonStorage.HEAP);
+        layout = new TreeLayout(LEAF_WIDTH, VERTICAL_GAP);
+        layout.layout(tree, 0, 0f, 0f);
+        rnd = new Random(7);
+    }
+
+    @Benchmark
+    public TreeLayout fullLayout() {
+        TreeLayout full = new TreeLayout(LEAF_WIDTH, VERTICAL_GAP);
+        full.layout(tree, 0, 0f, 0f);
+        return full;
+    }
+
+    /** Alta de un hijo bajo una persona al azar, como hace el menú del editor. */
+    @Benchmark
+    public boolean incrementalAddLeaf() {
+        int parent = rnd.nextInt(persons);
+        int child = tree.addPerson(new Person("bench-" + added++, "Nueva", "", null, null, ""));
+        tree.addParentChild(parent, child);
+        return layout.applyChildAdded(tree, parent, child);
+    }
+}
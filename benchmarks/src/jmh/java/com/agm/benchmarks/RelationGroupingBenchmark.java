@@ -0,0 +1,53 @@
+package com.agm.benchmarks;
+
+import com.agm.layout.TreeLayout;
+import com.agm.model.FamilyTree;
+import com.agm.model.PersonStorage;
+import com.agm.model.StructureSnapshot;
+import com.agm.screens.ConnectorCache;
+import com.agm.screens.NodeRegistry;
+import com.agm.screens.NodeView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupación de las relaciones por padre: la geometría de conexiones que se rehace tras cada layout
+ * y la copia de la estructura padre→hijos que se pasa al hilo de layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RelationGroupingBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    @Param({"DEEP", "WIDE", "BALANCED", "REALISTIC"})
+    public TreeGenerator.Shape shape;
+
+    private FamilyTree tree;
+    private final NodeRegistry nodes = new NodeRegistry();
+    private final ConnectorCache connectors = new ConnectorCache(30f, 512f);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = TreeGenerator.generate(shape, persons, 42).build(PersonStorage.HEAP);
+        TreeLayout layout = new TreeLayout(200f, 250f);
+        layout.layout(tree, 0, 0f, 0f);
+        for (int i = 0, n = layout.size(); i < n; i++) {
+            nodes.add(new NodeView(tree, layout.getHandle(i), layout.getX(i), layout.getY(i)));
+        }
+    }
+
+    @Benchmark
+    public int rebuildConnectors() {
+        connectors.invalidate();
+        connectors.rebuildIfDirty(tree, nodes);
+        return connectors.getSegmentCount();
+    }
+
+    @Benchmark
+    public StructureSnapshot snapshotStructure() {
+        return tree.snapshotStructure();
+    }
+}
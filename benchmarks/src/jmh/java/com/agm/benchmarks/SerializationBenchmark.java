@@ -0,0 +1,72 @@
+package com.agm.benchmarks;
+
+import com.agm.io.BinaryTreeFile;
+import com.agm.io.BinaryTreeWriter;
+import com.agm.io.TreeJsonReader;
+import com.agm.io.TreeJsonWriter;
+import com.agm.model.FamilyTree;
+import com.agm.model.PersonStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/** Guardado y carga del árbol en JSON (familytree.json) y en binario (familytree.agmb), en memoria. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializationBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    @Param({"BALANCED", "REALISTIC"})
+    public TreeGenerator.Shape shape;
+
+    private FamilyTree tree;
+    private ByteArrayOutputStream out;
+    private byte[] json, binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tree = TreeGenerator.generate(shape, persons, 42).build(PersonStorage.HEAP);
+        out = new ByteArrayOutputStream();
+        TreeJsonWriter.write(tree, out);
+        json = out.toByteArray();
+        out.reset();
+        BinaryTreeWriter.write(tree, out);
+        binary = out.toByteArray();
+        // Capacidad para el mayor de los dos: el buffer no crece durante la medida
+        out = new ByteArrayOutputStream(Math.max(json.length, binary.length));
+    }
+
+    @Benchmark
+    public int saveJson() throws IOException {
+        out.reset();
+        TreeJsonWriter.write(tree, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public FamilyTree loadJson() throws IOException {
+        FamilyTree loaded = new FamilyTree();
+        TreeJsonReader.read(new ByteArrayInputStream(json), loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public int saveBinary() throws IOException {
+        out.reset();
+        BinaryTreeWriter.write(tree, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public FamilyTree loadBinary() throws IOException {
+        FamilyTree loaded = new FamilyTree();
+        new BinaryTreeFile(ByteBuffer.wrap(binary)).loadInto(loaded);
+        return loaded;
+    }
+}
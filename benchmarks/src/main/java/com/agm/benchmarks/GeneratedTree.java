@@ -0,0 +1,47 @@
+package com.agm.benchmarks;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.PersonStorage;
+import com.agm.model.RelationType;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Personas y relaciones de un árbol sintético, aún sin meter en un FamilyTree, para poder medir
+ * la inserción por separado. Las relaciones van como ternas (origen, destino, tipo) de posiciones
+ * en {@link #persons}; la persona 0 es la raíz.
+ */
+public final class GeneratedTree {
+    private static final RelationType[] RELATION_TYPES = RelationType.values();
+
+    final Person[] persons;
+    final IntArray relations;
+
+    GeneratedTree(Person[] persons, IntArray relations) {
+        this.persons = persons;
+        this.relations = relations;
+    }
+
+    public int getPersonCount() {
+        return persons.length;
+    }
+
+    public int getRelationCount() {
+        return relations.size / 3;
+    }
+
+    public Person getPerson(int index) {
+        return persons[index];
+    }
+
+    /** Carga el árbol en un FamilyTree nuevo; como está vacío, el handle de cada persona es su posición. */
+    public FamilyTree build(PersonStorage storage) {
+        FamilyTree tree = new FamilyTree(storage);
+        for (Person p : persons) tree.addPerson(p);
+        int[] r = relations.items;
+        for (int i = 0, n = relations.size; i < n; i += 3) {
+            tree.addRelation(r[i], r[i + 1], RELATION_TYPES[r[i + 2]]);
+        }
+        return tree;
+    }
+}
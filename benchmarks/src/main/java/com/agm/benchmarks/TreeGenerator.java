@@ -0,0 +1,140 @@
+package com.agm.benchmarks;
+
+import com.agm.model.Person;
+import com.agm.model.RelationType;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Árboles sintéticos reproducibles (misma forma, tamaño y semilla = mismo árbol) para los benchmarks.
+ * Todos se generan por generaciones desde la raíz, sin recursión, así que valen hasta millones de personas.
+ */
+public final class TreeGenerator {
+    public enum Shape {
+        /** Una sola línea de descendencia: profundidad igual al número de personas. */
+        DEEP,
+        /** La raíz con todos los demás como hijos directos. */
+        WIDE,
+        /** Cada persona con {@link #BALANCED_FANOUT} hijos, generación a generación. */
+        BALANCED,
+        /**
+         * Número de hijos según una distribución parecida a la de árboles reales, la mitad de las
+         * personas con cónyuge (segundo padre de sus hijos) y los hermanos enlazados entre sí.
+         */
+        REALISTIC
+    }
+
+    public static final int BALANCED_FANOUT = 4;
+
+    // Probabilidad acumulada de tener 0, 1, 2… hijos en REALISTIC (media algo por encima de 1.5)
+    private static final float[] CHILDREN_CDF = {0.30f, 0.50f, 0.75f, 0.90f, 0.96f, 0.99f, 1f};
+    private static final float SPOUSE_PROBABILITY = 0.5f;
+
+    private static final String[] FIRST_NAMES = {"Ana", "Juan", "María", "José", "Lucía", "Pedro", "Carmen",
+        "Antonio", "Isabel", "Manuel", "Teresa", "Francisco", "Rosa", "Luis", "Elena", "Miguel"};
+    private static final String[] LAST_NAMES = {"García", "Fernández", "González", "Rodríguez", "López",
+        "Martínez", "Sánchez", "Pérez", "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz"};
+    private static final LocalDate FIRST_BIRTH = LocalDate.of(1600, 1, 1);
+    private static final int DAYS_PER_GENERATION = 25 * 365;
+
+    private TreeGenerator() {
+    }
+
+    public static GeneratedTree generate(Shape shape, int persons, long seed) {
+        if (persons < 1) throw new IllegalArgumentException("Hace falta al menos una persona");
+        return new Builder(persons, seed).fill(shape);
+    }
+
+    private static final class Builder {
+        final Random rnd;
+        final Person[] persons;
+        final int[] generation;
+        final IntArray relations = new IntArray();
+        int count;
+
+        Builder(int size, long seed) {
+            rnd = new Random(seed);
+            persons = new Person[size];
+            generation = new int[size];
+        }
+
+        GeneratedTree fill(Shape shape) {
+            add(0);
+            switch (shape) {
+                case DEEP:
+                    while (count < persons.length) child(count - 1);
+                    break;
+                case WIDE:
+                    while (count < persons.length) child(0);
+                    break;
+                case BALANCED:
+                    // Los hijos de i van justo detrás de los de i-1: el orden de alta ya es por generaciones
+                    for (int parent = 0; count < persons.length; parent++) {
+                        for (int c = 0; c < BALANCED_FANOUT && count < persons.length; c++) child(parent);
+                    }
+                    break;
+                case REALISTIC:
+                    fillRealistic();
+                    break;
+            }
+            return new GeneratedTree(persons, relations);
+        }
+
+        /** Recorre en anchura: cada persona de la línea principal puede tener cónyuge e hijos con él. */
+        private void fillRealistic() {
+            IntArray queue = new IntArray();
+            queue.add(0);
+            int head = 0, last = 0;
+            while (count < persons.length) {
+                // Si la descendencia se extingue, la última persona visitada tiene un hijo más
+                boolean extinct = head == queue.size;
+                int parent = extinct ? last : queue.get(head++);
+                last = parent;
+                int spouse = -1;
+                if (rnd.nextFloat() < SPOUSE_PROBABILITY) {
+                    spouse = add(generation[parent]);
+                    relate(parent, spouse, RelationType.SPOUSE);
+                }
+                int children = extinct ? 1 : childCount();
+                int previous = -1;
+                for (int c = 0; c < children && count < persons.length; c++) {
+                    int ch = child(parent);
+                    if (spouse >= 0) relate(spouse, ch, RelationType.PARENT);
+                    if (previous >= 0) relate(previous, ch, RelationType.SIBLING);
+                    previous = ch;
+                    queue.add(ch);
+                }
+            }
+        }
+
+        private int childCount() {
+            float r = rnd.nextFloat();
+            int n = 0;
+            while (r > CHILDREN_CDF[n]) n++;
+            return n;
+        }
+
+        private int child(int parent) {
+            int ch = add(generation[parent] + 1);
+            relate(parent, ch, RelationType.PARENT);
+            return ch;
+        }
+
+        private int add(int gen) {
+            int index = count++;
+            generation[index] = gen;
+            LocalDate birth = FIRST_BIRTH.plusDays((long) gen * DAYS_PER_GENERATION + rnd.nextInt(3650));
+            LocalDate death = rnd.nextBoolean() ? birth.plusDays(20000 + rnd.nextInt(10000)) : null;
+            persons[index] = new Person("p" + index,
+                FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)], LAST_NAMES[rnd.nextInt(LAST_NAMES.length)],
+                birth, death, rnd.nextInt(8) == 0 ? "Nota de prueba " + index : "");
+            return index;
+        }
+
+        private void relate(int from, int to, RelationType type) {
+            relations.add(from, to, type.ordinal());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.agm.benchmarks.frames;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Fases del guion de cámara, en orden. Los gestos se inyectan como toques de pantalla, así que
+ * pasan por el GestureDetector del editor igual que los de un usuario.
+ */
+enum CameraScript {
+    /** Sin entrada: coste del frame en reposo. */
+    IDLE {
+        @Override
+        void step(ScriptedInput input, int frame, int frames, int width, int height) {
+        }
+    },
+    /** Arrastre con un dedo a un lado y a otro, al zoom inicial. */
+    PAN {
+        @Override
+        void step(ScriptedInput input, int frame, int frames, int width, int height) {
+            drag(input, frame, frames, width, height);
+        }
+    },
+    /** Pellizco que aleja la cámara hasta el zoom máximo, pasando por todos los niveles de detalle. */
+    ZOOM_OUT {
+        @Override
+        void step(ScriptedInput input, int frame, int frames, int width, int height) {
+            pinch(input, frame, frames, width, height, PINCH_WIDE, PINCH_NARROW);
+        }
+    },
+    /** Arrastre con la cámara alejada (vista de grupos). */
+    PAN_FAR {
+        @Override
+        void step(ScriptedInput input, int frame, int frames, int width, int height) {
+            drag(input, frame, frames, width, height);
+        }
+    },
+    /** Pellizco de vuelta hasta el zoom mínimo. */
+    ZOOM_IN {
+        @Override
+        void step(ScriptedInput input, int frame, int frames, int width, int height) {
+            pinch(input, frame, frames, width, height, PINCH_NARROW, PINCH_WIDE);
+        }
+    };
+
+    // Separación entre los dos dedos del pellizco, en píxeles: el zoom cambia en la proporción inversa
+    private static final float PINCH_WIDE = 500f, PINCH_NARROW = 80f;
+
+    /** Inyecta los eventos del frame {@code frame} de {@code frames}; en el último se levantan los dedos. */
+    abstract void step(ScriptedInput input, int frame, int frames, int width, int height);
+
+    private static void drag(ScriptedInput input, int frame, int frames, int width, int height) {
+        float cx = width / 2f, cy = height / 2f;
+        float x = cx + width / 3f * MathUtils.sin(MathUtils.PI2 * frame / frames);
+        if (frame == 0) input.touchDown(cx, cy, 0);
+        input.touchDragged(x, cy, 0);
+        if (frame == frames - 1) input.touchUp(x, cy, 0);
+    }
+
+    private static void pinch(ScriptedInput input, int frame, int frames, int width, int height,
+                              float fromDistance, float toDistance) {
+        float cx = width / 2f, cy = height / 2f;
+        float half = MathUtils.lerp(fromDistance, toDistance, frames > 1 ? frame / (frames - 1f) : 1f) / 2f;
+        if (frame == 0) {
+            input.touchDown(cx - fromDistance / 2f, cy, 0);
+            input.touchDown(cx + fromDistance / 2f, cy, 1);
+        }
+        input.touchDragged(cx - half, cy, 0);
+        input.touchDragged(cx + half, cy, 1);
+        if (frame == frames - 1) {
+            input.touchUp(cx - half, cy, 0);
+            input.touchUp(cx + half, cy, 1);
+        }
+    }
+}
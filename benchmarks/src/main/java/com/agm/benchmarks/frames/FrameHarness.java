@@ -0,0 +1,271 @@
+package com.agm.benchmarks.frames;
+
+import com.agm.MainGame;
+import com.agm.benchmarks.GeneratedTree;
+import com.agm.benchmarks.TreeGenerator;
+import com.agm.io.BinaryTreeWriter;
+import com.agm.io.BufferMapper;
+import com.agm.io.TreeJsonWriter;
+import com.agm.metrics.MetricsRegistry;
+import com.agm.model.FamilyTree;
+import com.agm.model.PersonStorage;
+import com.agm.screens.EditorScreen;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mide tiempos de frame del editor sin GPU: genera un árbol, lo deja como fichero del editor en el
+ * directorio de trabajo, arranca {@link EditorScreen} sobre el backend headless con un GL vacío y
+ * reproduce un guion de cámara ({@link CameraScript}) a través de su GestureDetector. Por frame
+ * guarda tiempo real, CPU del hilo de render y bytes reservados (eventos de entrada incluidos);
+ * el resultado se escribe en JSON.
+ *
+ * <p>Argumentos {@code clave=valor}: persons, shape, seed, storage, format (json|binary),
+ * personCache, frames (por fase), warmup, width, height, out y maxAllocBytes. Con maxAllocBytes
+ * &gt;= 0 la ejecución falla (código de salida 1) si algún frame estable, uno que no dibuja
+ * teselas, reserva más de esos bytes; {@code maxAllocBytes=0} comprueba que no reserva nada, y así
+ * lo ejecuta {@code benchmarks:frameHarnessCheck} (con -Xint) dentro de {@code check}.
+ * Ojo: sobrescribe familytree.* y el diario del directorio de trabajo; la tarea
+ * {@code benchmarks:frameHarness} usa build/frame-harness.
+ */
+public final class FrameHarness {
+    private static final long WARMUP_TIMEOUT_MS = 10 * 60 * 1000;
+    private static final int CALIBRATION_ROUNDS = 32;
+
+    private FrameHarness() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("persons", "10000");
+        options.put("shape", "REALISTIC");
+        options.put("seed", "42");
+        options.put("storage", "HEAP");
+        options.put("format", "json");
+        options.put("personCache", "0");
+        options.put("frames", "240");
+        options.put("warmup", "60");
+        options.put("width", "1920");
+        options.put("height", "1080");
+        options.put("out", "frame-times.json");
+        options.put("maxAllocBytes", "-1");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0 || !options.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Argumento desconocido: " + arg + " (válidos: " + options.keySet() + ")");
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        int persons = Integer.parseInt(options.get("persons"));
+        TreeGenerator.Shape shape = TreeGenerator.Shape.valueOf(options.get("shape"));
+        GeneratedTree generated = TreeGenerator.generate(shape, persons, Long.parseLong(options.get("seed")));
+        writeTreeFiles(generated.build(PersonStorage.HEAP), "binary".equals(options.get("format")));
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = 0;   // sin esperas entre frames
+        new HeadlessApplication(new Listener(options), config);
+    }
+
+    /** Deja el árbol como lo encontraría el editor al arrancar, sin diario de una ejecución anterior. */
+    private static void writeTreeFiles(FamilyTree tree, boolean binary) throws IOException {
+        // Todas las generaciones de instantánea (familytree.agmb, familytree-3.json…) y el diario
+        File[] old = new File(".").listFiles((dir, name) -> name.startsWith("familytree"));
+        if (old != null) {
+            for (File f : old) {
+                if (!f.delete()) throw new IOException("No se pudo borrar " + f.getAbsolutePath());
+            }
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(binary ? "familytree.agmb" : "familytree.json"))) {
+            if (binary) {
+                BinaryTreeWriter.write(tree, out);
+            } else {
+                TreeJsonWriter.write(tree, out);
+            }
+        }
+    }
+
+    /** Envuelve el juego: prepara el entorno falso, espera al primer layout y recorre el guion midiendo cada frame. */
+    private static final class Listener extends ApplicationAdapter {
+        private final Map<String, String> options;
+        private final int frames, warmupFrames, width, height;
+        private final long maxAllocBytes;
+        private final ScriptedInput input = new ScriptedInput();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final FrameStats[] stats = new FrameStats[CameraScript.values().length];
+        private MainGame game;
+        private MetricsRegistry.Metric tilesPainted;
+        private long warmupStart, loadMs, warmupMs;
+        private long allocOverhead;   // lo que reserva la propia medida, se descuenta de cada frame
+        private boolean allocFailed;
+        private int warmupDone;
+        private int phase = -1;   // -1 = calentamiento
+        private int frame;
+
+        Listener(Map<String, String> options) {
+            this.options = options;
+            frames = Integer.parseInt(options.get("frames"));
+            warmupFrames = Integer.parseInt(options.get("warmup"));
+            width = Integer.parseInt(options.get("width"));
+            height = Integer.parseInt(options.get("height"));
+            maxAllocBytes = Long.parseLong(options.get("maxAllocBytes"));
+            for (CameraScript s : CameraScript.values()) stats[s.ordinal()] = new FrameStats(s.name(), frames);
+        }
+
+        @Override
+        public void create() {
+            Gdx.gl = Gdx.gl20 = new HeadlessGL();
+            Gdx.graphics = new HarnessGraphics(width, height);
+            Gdx.input = input.getInput();
+            ShaderProgram.pedantic = false;
+            // Sin temporizadores: ni autoguardado ni pulsación larga durante la medida
+            Timer.instance().stop();
+            // Inicializaciones perezosas del primer gesto, que no deben caer dentro de un frame medido:
+            // la tabla de senos del guion y los pools de eventos del Stage (con sus clases)
+            MathUtils.sin(0f);
+            InputEvent event = Pools.obtain(InputEvent.class);
+            event.setType(InputEvent.Type.touchDown);
+            Pools.free(event);
+            Pools.free(Pools.obtain(Array.class));
+
+            game = new MainGame(BufferMapper.HEAP, PersonStorage.valueOf(options.get("storage")),
+                Integer.parseInt(options.get("personCache")));
+            long start = TimeUtils.millis();
+            game.create();
+            game.resize(width, height);
+            loadMs = TimeUtils.millis() - start;
+            // La pantalla ya registró el contador; aquí se recupera el mismo
+            tilesPainted = game.getMetrics().gauge("tiles.painted", MetricsRegistry.Unit.COUNT);
+            warmupStart = TimeUtils.millis();
+        }
+
+        @Override
+        public void render() {
+            if (phase >= stats.length) return;   // finish() ya pidió salir; el backend aún completa este ciclo
+            if (phase < 0) {
+                // Calentamiento: hasta que el primer layout esté publicado y luego unos frames más para el JIT
+                game.render();
+                EditorScreen screen = (EditorScreen) game.getScreen();
+                if (!screen.isLayoutPending()) warmupDone++;
+                if (TimeUtils.millis() - warmupStart > WARMUP_TIMEOUT_MS) {
+                    throw new IllegalStateException("El layout inicial no terminó en " + WARMUP_TIMEOUT_MS + " ms");
+                }
+                if (warmupDone >= warmupFrames) {
+                    warmupMs = TimeUtils.millis() - warmupStart;
+                    allocOverhead = measureOverhead();
+                    phase = 0;
+                    frame = 0;
+                }
+                return;
+            }
+
+            CameraScript script = CameraScript.values()[phase];
+
+            // El backend entrega la entrada dentro del frame: se mide junto con el render
+            long thread = Thread.currentThread().getId();
+            long alloc0 = allocatedBytes(thread);
+            long cpu0 = threads.getCurrentThreadCpuTime();
+            long wall0 = System.nanoTime();
+            script.step(input, frame, frames, width, height);
+            game.render();
+            long wall = System.nanoTime() - wall0;
+            long cpu = threads.getCurrentThreadCpuTime() - cpu0;
+            long alloc = alloc0 < 0 ? -1 : Math.max(0, allocatedBytes(thread) - alloc0 - allocOverhead);
+            stats[phase].add(wall, cpu, alloc, tilesPainted.getLast() == 0);
+
+            if (++frame == frames) {
+                frame = 0;
+                if (++phase == stats.length) finish();
+            }
+        }
+
+        /** Reserva mínima de la secuencia de medida sin nada en medio (en JDK 8 la consulta crea un array). */
+        private long measureOverhead() {
+            long thread = Thread.currentThread().getId();
+            if (allocatedBytes(thread) < 0) return 0;
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+                long alloc0 = allocatedBytes(thread);
+                threads.getCurrentThreadCpuTime();
+                System.nanoTime();
+                System.nanoTime();
+                threads.getCurrentThreadCpuTime();
+                min = Math.min(min, allocatedBytes(thread) - alloc0);
+            }
+            return min;
+        }
+
+        /** Bytes reservados por el hilo hasta ahora, o -1 si la JVM no lo ofrece. */
+        private long allocatedBytes(long thread) {
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread);
+            }
+            return -1;
+        }
+
+        private void finish() {
+            StringBuilder json = new StringBuilder(1 << 16);
+            json.append("{\"options\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> e : options.entrySet()) {
+                if (!first) json.append(',');
+                first = false;
+                json.append('"').append(e.getKey()).append("\":\"").append(e.getValue()).append('"');
+            }
+            json.append("},\"java\":\"").append(System.getProperty("java.version"))
+                .append("\",\"loadMs\":").append(loadMs)
+                .append(",\"warmupMs\":").append(warmupMs)
+                .append(",\"phases\":[");
+            for (int i = 0; i < stats.length; i++) {
+                if (i > 0) json.append(',');
+                stats[i].writeJson(json);
+                Gdx.app.log("FrameHarness", stats[i].summary());
+                if (maxAllocBytes >= 0 && stats[i].getSteadyAllocMax() > maxAllocBytes) {
+                    Gdx.app.error("FrameHarness", stats[i].getName() + ": un frame estable reservó "
+                        + stats[i].getSteadyAllocMax() + " B (máximo permitido " + maxAllocBytes + " B)");
+                    allocFailed = true;
+                }
+            }
+            json.append("]}\n");
+
+            File out = new File(options.get("out"));
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8)) {
+                w.write(json.toString());
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo escribir " + out.getAbsolutePath(), e);
+            }
+            Gdx.app.log("FrameHarness", "Resultados en " + out.getAbsolutePath());
+            Gdx.app.exit();
+        }
+
+        @Override
+        public void dispose() {
+            // Game.dispose() sólo oculta la pantalla: el editor se libera aquí para cerrar diario e hilos
+            game.dispose();
+            if (game.getScreen() != null) game.getScreen().dispose();
+            if (allocFailed) System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.agm.benchmarks.frames;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Muestras por frame de una fase (tiempo real, CPU del hilo de render y bytes reservados) y sus
+ * resúmenes. Los frames estables son los que sólo recomponen teselas ya dibujadas: en ellos el
+ * editor no debería reservar memoria.
+ */
+final class FrameStats {
+    private final String name;
+    private final long[] wallNs, cpuNs, allocBytes;
+    private int count;
+    private int steadyFrames;
+    private long steadyAllocMax = -1;
+
+    FrameStats(String name, int capacity) {
+        this.name = name;
+        wallNs = new long[capacity];
+        cpuNs = new long[capacity];
+        allocBytes = new long[capacity];
+    }
+
+    void add(long wall, long cpu, long alloc, boolean steady) {
+        wallNs[count] = wall;
+        cpuNs[count] = cpu;
+        allocBytes[count] = alloc;
+        count++;
+        if (steady) {
+            steadyFrames++;
+            steadyAllocMax = Math.max(steadyAllocMax, alloc);
+        }
+    }
+
+    int getSteadyFrames() {
+        return steadyFrames;
+    }
+
+    /** Máximo reservado en un frame estable; -1 si no hubo ninguno o la JVM no cuenta reservas. */
+    long getSteadyAllocMax() {
+        return steadyAllocMax;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /** Percentil por rango más cercano ({@code p} en [0, 100]). */
+    static long percentile(long[] values, int count, double p) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    private static double mean(long[] values, int count) {
+        if (count == 0) return 0;
+        double sum = 0;
+        for (int i = 0; i < count; i++) sum += values[i];
+        return sum / count;
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT, "%-9s %4d frames  p50 %7.2f ms  p99 %7.2f ms  cpu p50 %7.2f ms  alloc media %,10.0f B"
+                + "  estables %4d (alloc máx %,d B)",
+            name, count, percentile(wallNs, count, 50) / 1e6, percentile(wallNs, count, 99) / 1e6,
+            percentile(cpuNs, count, 50) / 1e6, mean(allocBytes, count), steadyFrames, steadyAllocMax);
+    }
+
+    void writeJson(StringBuilder out) {
+        out.append("{\"name\":\"").append(name).append("\",\"frames\":").append(count);
+        out.append(",\"wallMs\":");
+        writeSummary(out, wallNs, 1e6);
+        out.append(",\"cpuMs\":");
+        writeSummary(out, cpuNs, 1e6);
+        out.append(",\"allocBytes\":");
+        writeSummary(out, allocBytes, 1);
+        out.append(",\"steadyFrames\":").append(steadyFrames)
+            .append(",\"steadyAllocMaxBytes\":").append(steadyAllocMax);
+        out.append(",\"samples\":{\"wallNs\":");
+        writeArray(out, wallNs);
+        out.append(",\"cpuNs\":");
+        writeArray(out, cpuNs);
+        out.append(",\"allocBytes\":");
+        writeArray(out, allocBytes);
+        out.append("}}");
+    }
+
+    private void writeSummary(StringBuilder out, long[] values, double scale) {
+        out.append("{\"p50\":").append(number(percentile(values, count, 50) / scale))
+            .append(",\"p90\":").append(number(percentile(values, count, 90) / scale))
+            .append(",\"p99\":").append(number(percentile(values, count, 99) / scale))
+            .append(",\"max\":").append(number(percentile(values, count, 100) / scale))
+            .append(",\"mean\":").append(number(mean(values, count) / scale))
+            .append('}');
+    }
+
+    private void writeArray(StringBuilder out, long[] values) {
+        out.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(',');
+            out.append(values[i]);
+        }
+        out.append(']');
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.agm.benchmarks.frames;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+
+/** Gráficos del backend headless con un tamaño de pantalla fijo y un delta constante de 60 Hz. */
+final class HarnessGraphics extends MockGraphics {
+    private final int width, height;
+
+    HarnessGraphics(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getBackBufferWidth() {
+        return width;
+    }
+
+    @Override
+    public int getBackBufferHeight() {
+        return height;
+    }
+
+    @Override
+    public float getDeltaTime() {
+        return 1f / 60f;
+    }
+}
@@ -0,0 +1,42 @@
+package com.agm.benchmarks.frames;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+
+/**
+ * Input sin dispositivo: sólo recuerda el InputProcessor que registra la pantalla, para que el
+ * guion le inyecte los eventos de toque igual que lo haría el backend antes de cada frame.
+ * Es una subclase de MockInput y no un Proxy: GestureDetector consulta el Input en cada toque y
+ * un Proxy reservaría memoria en cada llamada.
+ */
+final class ScriptedInput {
+    private InputProcessor processor;
+    private final Input input = new MockInput() {
+        @Override
+        public void setInputProcessor(InputProcessor inputProcessor) {
+            processor = inputProcessor;
+        }
+
+        @Override
+        public InputProcessor getInputProcessor() {
+            return processor;
+        }
+    };
+
+    Input getInput() {
+        return input;
+    }
+
+    void touchDown(float x, float y, int pointer) {
+        if (processor != null) processor.touchDown(Math.round(x), Math.round(y), pointer, Input.Buttons.LEFT);
+    }
+
+    void touchDragged(float x, float y, int pointer) {
+        if (processor != null) processor.touchDragged(Math.round(x), Math.round(y), pointer);
+    }
+
+    void touchUp(float x, float y, int pointer) {
+        if (processor != null) processor.touchUp(Math.round(x), Math.round(y), pointer, Input.Buttons.LEFT);
+    }
+}
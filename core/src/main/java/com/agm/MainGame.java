@@ -1,13 +1,67 @@
 package com.agm;
 
+import com.agm.io.BufferMapper;
+import com.agm.metrics.MetricsRegistry;
+import com.agm.model.PersonStorage;
 import com.agm.screens.EditorScreen;
 import com.badlogic.gdx.Game;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
 public class MainGame extends Game {
+    private final BufferMapper bufferMapper;
+    private final PersonStorage personStorage;
+    private final int personCacheSize;
+    private boolean onDemandRendering = true;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    public MainGame() {
+        this(BufferMapper.HEAP);
+    }
+
+    /** @param bufferMapper cómo abrir los ficheros binarios del árbol en cada plataforma */
+    public MainGame(BufferMapper bufferMapper) {
+        this(bufferMapper, PersonStorage.HEAP, 0);
+    }
+
+    /**
+     * @param personStorage   representación en memoria de las personas cargadas enteras
+     * @param personCacheSize si es mayor que 0, las personas de familytree.agmb se leen bajo demanda
+     *                        y sólo se retienen tantas sin modificar; 0 carga el árbol entero
+     */
+    public MainGame(BufferMapper bufferMapper, PersonStorage personStorage, int personCacheSize) {
+        this.bufferMapper = bufferMapper;
+        this.personStorage = personStorage;
+        this.personCacheSize = personCacheSize;
+    }
+
+    public BufferMapper getBufferMapper() {
+        return bufferMapper;
+    }
+
+    public PersonStorage getPersonStorage() {
+        return personStorage;
+    }
+
+    public int getPersonCacheSize() {
+        return personCacheSize;
+    }
+
+    /** Si es true (por defecto) sólo se pinta un frame cuando algo cambia, en lugar de a la frecuencia del monitor. */
+    public void setOnDemandRendering(boolean onDemandRendering) {
+        this.onDemandRendering = onDemandRendering;
+    }
+
+    public boolean isOnDemandRendering() {
+        return onDemandRendering;
+    }
+
+    /** Contadores de rendimiento compartidos por pantallas, carga y guardado. */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void create() {
         setScreen(new EditorScreen(this));
     }
 }
-
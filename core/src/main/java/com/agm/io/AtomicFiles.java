@@ -0,0 +1,44 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/** Escritura de ficheros completos vía fichero temporal + rename, para no dejar nunca uno a medias. */
+public final class AtomicFiles {
+    private AtomicFiles() {
+    }
+
+    /**
+     * Serializa {@code tree} en {@code target.tmp}, lo sincroniza a disco y lo mueve de forma atómica
+     * sobre {@code target}; al volver, el cambio de nombre también está en disco. Si algo falla,
+     * {@code target} conserva su contenido anterior.
+     */
+    public static void write(File target, FamilyTree tree, TreeSerializer serializer) throws IOException {
+        File tmp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            serializer.write(tree, out);
+            out.getFD().sync();
+        }
+        // Sustituye el destino en un solo paso (rename(2) en POSIX, MoveFileEx en Windows)
+        Path targetPath = target.toPath().toAbsolutePath();
+        Files.move(tmp.toPath(), targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(targetPath.getParent());
+    }
+
+    /** fsync del directorio para que la nueva entrada sobreviva a un corte de luz; Windows no deja abrirlo y no lo necesita. */
+    private static void syncDirectory(Path dir) {
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
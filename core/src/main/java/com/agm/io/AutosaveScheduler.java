@@ -0,0 +1,58 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+
+/**
+ * Decide cuándo guardar el árbol completo a partir de su contador de modificaciones.
+ * Espera a que pase {@code debounceMs} sin cambios, pero nunca más de {@code maxDelayMs} desde
+ * el primer cambio sin guardar. La instantánea la saca el hilo del diario de su propia copia del
+ * árbol y la escribe como generación nueva, tras lo cual el diario se vacía. {@link #update} sólo
+ * compara números y encola una marca, así que se puede llamar en cada frame.
+ */
+public class AutosaveScheduler {
+    private final FamilyTree tree;
+    private final EditJournal journal;
+    private final SnapshotGenerations target;
+    private final TreeSerializer serializer;
+    private final long debounceMs;
+    private final long maxDelayMs;
+
+    private long savedModCount;
+    private long seenModCount;
+    private long lastChangeTime;
+    private long firstDirtyTime = -1;
+
+    public AutosaveScheduler(FamilyTree tree, EditJournal journal, SnapshotGenerations target, TreeSerializer serializer,
+                             long debounceMs, long maxDelayMs) {
+        this.tree = tree;
+        this.journal = journal;
+        this.target = target;
+        this.serializer = serializer;
+        this.debounceMs = debounceMs;
+        this.maxDelayMs = maxDelayMs;
+        this.savedModCount = this.seenModCount = tree.getModCount();
+    }
+
+    /** @param now instante actual en milisegundos */
+    public void update(long now) {
+        long modCount = tree.getModCount();
+        if (modCount != seenModCount) {
+            seenModCount = modCount;
+            lastChangeTime = now;
+            if (firstDirtyTime < 0) firstDirtyTime = now;
+        }
+        if (modCount == savedModCount || journal.isCheckpointPending()) return;
+
+        boolean quiet = now - lastChangeTime >= debounceMs;
+        boolean overdue = now - firstDirtyTime >= maxDelayMs;
+        if (quiet || overdue || journal.needsCompaction()) {
+            journal.checkpoint(target, serializer);
+            savedModCount = modCount;
+            firstDirtyTime = -1;
+        }
+    }
+
+    public boolean isDirty() {
+        return tree.getModCount() != savedModCount;
+    }
+}
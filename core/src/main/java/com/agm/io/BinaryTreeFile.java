@@ -0,0 +1,112 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.RelationType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static com.agm.io.BinaryTreeFormat.*;
+
+/**
+ * Vista de sólo lectura sobre un familytree.agmb ya cargado o mapeado en memoria.
+ * Los registros se leen por posición absoluta, así que se puede acceder a cualquier persona sin
+ * recorrer las anteriores. No es thread-safe: usar una instancia por hilo.
+ */
+public class BinaryTreeFile {
+    private static final RelationType[] RELATION_TYPES = RelationType.values();
+
+    private final ByteBuffer buf;
+    private final int stringCount, personCount, relationCount;
+    private final int personsPos, relationsPos, stringOffsetsPos, stringDataPos;
+    private byte[] scratch = new byte[256];
+
+    public BinaryTreeFile(ByteBuffer buffer) throws IOException {
+        this.buf = buffer.duplicate();
+        if (buf.limit() < HEADER_BYTES || buf.getInt(0) != MAGIC) throw new IOException("No es un fichero .agmb");
+        int version = buf.getInt(4);
+        if (version != VERSION) throw new IOException("Versión de .agmb no soportada: " + version);
+        stringCount = buf.getInt(8);
+        personCount = buf.getInt(12);
+        relationCount = buf.getInt(16);
+        personsPos = buf.getInt(20);
+        relationsPos = buf.getInt(24);
+        stringOffsetsPos = buf.getInt(28);
+        stringDataPos = stringOffsetsPos + (stringCount + 1) * 4;
+        if (stringDataPos > buf.limit()) throw new IOException("Fichero .agmb truncado");
+    }
+
+    /** Otra vista sobre los mismos bytes, con su propio estado de lectura (para usar desde otro hilo). */
+    public BinaryTreeFile duplicate() {
+        try {
+            return new BinaryTreeFile(buf);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // la cabecera ya se validó
+        }
+    }
+
+    public int getPersonCount() {
+        return personCount;
+    }
+
+    public int getRelationCount() {
+        return relationCount;
+    }
+
+    public String getPersonId(int index) {
+        return getString(personField(index, 0));
+    }
+
+    public Person readPerson(int index) {
+        return new Person(
+            getString(personField(index, 0)),
+            getString(personField(index, 1)),
+            getString(personField(index, 2)),
+            date(personField(index, 4)),
+            date(personField(index, 5)),
+            getString(personField(index, 3)));
+    }
+
+    public int getRelationFrom(int index) {
+        return buf.getInt(relationsPos + index * RELATION_BYTES);
+    }
+
+    public int getRelationTo(int index) {
+        return buf.getInt(relationsPos + index * RELATION_BYTES + 4);
+    }
+
+    public RelationType getRelationType(int index) {
+        return RELATION_TYPES[buf.getInt(relationsPos + index * RELATION_BYTES + 8)];
+    }
+
+    /** Materializa todas las personas y relaciones en {@code tree}. */
+    public void loadInto(FamilyTree tree) {
+        int[] handles = new int[personCount];
+        for (int i = 0; i < personCount; i++) handles[i] = tree.addPerson(readPerson(i));
+        for (int i = 0; i < relationCount; i++) {
+            tree.addRelation(handles[getRelationFrom(i)], handles[getRelationTo(i)], getRelationType(i));
+        }
+    }
+
+    public String getString(int index) {
+        if (index == NO_STRING) return null;
+        int start = buf.getInt(stringOffsetsPos + index * 4);
+        int end = buf.getInt(stringOffsetsPos + index * 4 + 4);
+        int len = end - start;
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        buf.position(stringDataPos + start);
+        buf.get(scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private int personField(int index, int field) {
+        return buf.getInt(personsPos + index * PERSON_BYTES + field * 4);
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
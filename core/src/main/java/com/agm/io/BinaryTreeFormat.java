@@ -0,0 +1,25 @@
+package com.agm.io;
+
+/**
+ * Constantes del formato binario familytree.agmb (big-endian).
+ * <pre>
+ * cabecera   8 × int: magic, versión, nº cadenas, nº personas, nº relaciones,
+ *                     offset personas, offset relaciones, offset tabla de cadenas
+ * personas   6 × int por registro: id, nombre, apellidos, cita (índices de cadena, -1 = null),
+ *                     nacimiento, defunción (epoch-day, NO_DATE = sin fecha)
+ * relaciones 3 × int por registro: índice persona origen, índice persona destino, RelationType.ordinal()
+ * cadenas    int[nº cadenas + 1] offsets relativos al bloque de bytes, seguido de los bytes UTF-8
+ * </pre>
+ */
+public final class BinaryTreeFormat {
+    public static final int MAGIC = 0x41474D42;   // "AGMB"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8 * 4;
+    public static final int PERSON_BYTES = 6 * 4;
+    public static final int RELATION_BYTES = 3 * 4;
+    public static final int NO_STRING = -1;
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private BinaryTreeFormat() {
+    }
+}
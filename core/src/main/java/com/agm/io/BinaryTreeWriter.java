@@ -0,0 +1,107 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.agm.io.BinaryTreeFormat.*;
+
+/** Escribe un FamilyTree en formato familytree.agmb (ver {@link BinaryTreeFormat}). */
+public final class BinaryTreeWriter {
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<byte[]> strings = new ArrayList<>();
+
+    private BinaryTreeWriter() {
+    }
+
+    /** Escribe y vacía el buffer, pero no cierra el stream. */
+    public static void write(FamilyTree tree, OutputStream out) throws IOException {
+        new BinaryTreeWriter().writeTree(tree, out);
+    }
+
+    private void writeTree(FamilyTree tree, OutputStream out) throws IOException {
+        // Posición en el fichero de cada handle (para las relaciones) y tabla de cadenas deduplicada
+        int personCount = tree.getPersonCount();
+        int[] personIndex = new int[tree.getHandleCount()];
+        Arrays.fill(personIndex, -1);
+        int[] records = new int[personCount * 6];
+        int index = 0;
+        for (int h = 0, n = tree.getHandleCount(); h < n; h++) {
+            if (!tree.hasPerson(h)) continue;
+            Person p = tree.getPersonByHandle(h);   // con almacén paginado se lee de una en una
+            personIndex[h] = index;
+            records[index * 6] = intern(p.getId());
+            records[index * 6 + 1] = intern(p.getFirstName());
+            records[index * 6 + 2] = intern(p.getLastName());
+            records[index * 6 + 3] = intern(p.getQuote());
+            records[index * 6 + 4] = epochDay(p.getBirthDate());
+            records[index * 6 + 5] = epochDay(p.getDeathDate());
+            index++;
+        }
+
+        // Las relaciones que apuntan a personas inexistentes no se pueden representar por índice
+        IntArray relations = new IntArray(tree.getRelationCount());
+        for (int i = 0, n = tree.getRelationCount(); i < n; i++) {
+            if (personIndex[tree.getRelationFrom(i)] >= 0 && personIndex[tree.getRelationTo(i)] >= 0) relations.add(i);
+        }
+
+        int personsPos = HEADER_BYTES;
+        int relationsPos = personsPos + personCount * PERSON_BYTES;
+        int stringsPos = relationsPos + relations.size * RELATION_BYTES;
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(strings.size());
+        data.writeInt(personCount);
+        data.writeInt(relations.size);
+        data.writeInt(personsPos);
+        data.writeInt(relationsPos);
+        data.writeInt(stringsPos);
+
+        for (int value : records) data.writeInt(value);
+
+        for (int i = 0; i < relations.size; i++) {
+            int r = relations.get(i);
+            data.writeInt(personIndex[tree.getRelationFrom(r)]);
+            data.writeInt(personIndex[tree.getRelationTo(r)]);
+            data.writeInt(tree.getRelationType(r).ordinal());
+        }
+
+        int offset = 0;
+        data.writeInt(offset);
+        for (byte[] s : strings) {
+            offset += s.length;
+            data.writeInt(offset);
+        }
+        for (byte[] s : strings) data.write(s);
+        data.flush();
+    }
+
+    private int intern(String s) {
+        if (s == null) return NO_STRING;
+        Integer idx = stringIndex.get(s);
+        if (idx == null) {
+            idx = strings.size();
+            stringIndex.put(s, idx);
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return idx;
+    }
+
+    private static int epochDay(LocalDate d) {
+        return d == null ? NO_DATE : (int) d.toEpochDay();
+    }
+}
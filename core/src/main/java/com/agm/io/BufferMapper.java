@@ -0,0 +1,16 @@
+package com.agm.io;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Obtiene el contenido de un fichero como ByteBuffer. Por defecto lo lee entero a memoria;
+ * el backend de escritorio lo sustituye por un mapeo con FileChannel.
+ */
+public interface BufferMapper {
+    BufferMapper HEAP = fh -> ByteBuffer.wrap(fh.readBytes());
+
+    ByteBuffer map(FileHandle fh) throws IOException;
+}
@@ -0,0 +1,496 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.Relation;
+import com.agm.model.RelationType;
+import com.agm.model.TreeListener;
+import com.badlogic.gdx.Gdx;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de ediciones de sólo anexado (write-ahead log). Cada cambio del árbol se codifica en el
+ * hilo que lo produce y un hilo de fondo lo añade al fichero, agrupando en un único fsync todo lo
+ * que se haya acumulado mientras tanto. Cada cierto número de registros se compacta: se escribe
+ * una instantánea completa del árbol y se vacía el diario.
+ *
+ * <p>El hilo de fondo mantiene su propia copia del árbol y le aplica cada registro al escribirlo,
+ * igual que haría {@link #replay}. La instantánea se toma de esa copia, así que pedirla no cuesta
+ * nada en el hilo de edición y siempre coincide con lo que hay en el diario hasta ese punto.
+ *
+ * <p>Al cargar: instantánea + {@link #replay} del diario; el diario se abre después con la longitud
+ * válida que devolvió replay, descartando una cola corrupta antes de anexar nada detrás.
+ *
+ * <p>Si una escritura falla se reabre el fichero (cortándolo en lo último sincronizado) y se
+ * reintenta. Si sigue fallando el diario pasa a {@link #isFailed() fallido}: deja de escribir,
+ * avisa al listener de fallos y sólo se recupera con una instantánea que se guarde bien. Para no
+ * perder lo posterior al fallo se cierra con {@link #close(SnapshotGenerations, TreeSerializer)}, que
+ * en ese caso guarda la instantánea y vacía el diario: si quedaran en él los registros anteriores al
+ * fallo, el replay los aplicaría encima de la instantánea y desharía las ediciones más nuevas.
+ */
+public class EditJournal implements TreeListener {
+    private static final byte OP_ADD_PERSON = 1;
+    private static final byte OP_EDIT_PERSON = 2;
+    private static final byte OP_ADD_RELATION = 3;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final Object CLOSE = new Object();
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+
+    /** Resultado de {@link #replay}: registros aplicados y bytes del fichero que son registros válidos. */
+    public static final class Replay {
+        private final int applied;
+        private final long validLength;
+        private final long fileLength;
+
+        Replay(int applied, long validLength, long fileLength) {
+            this.applied = applied;
+            this.validLength = validLength;
+            this.fileLength = fileLength;
+        }
+
+        public int getApplied() {
+            return applied;
+        }
+
+        /** Fin del último registro válido: el diario debe abrirse cortado aquí. */
+        public long getValidLength() {
+            return validLength;
+        }
+
+        /** Bytes detrás del último registro válido (cola cortada o corrupta). */
+        public long getDroppedBytes() {
+            return fileLength - validLength;
+        }
+    }
+
+    /** Operación de escritura que se puede repetir tras reabrir el fichero. */
+    private interface WriteAction {
+        void run() throws IOException;
+    }
+
+    /** Petición de compactación; la instantánea es la copia del hilo de fondo en ese punto de la cola. */
+    private static final class Checkpoint {
+        final SnapshotGenerations target;
+        final TreeSerializer serializer;
+
+        Checkpoint(SnapshotGenerations target, TreeSerializer serializer) {
+            this.target = target;
+            this.serializer = serializer;
+        }
+    }
+
+    private final File file;
+    private final int compactThreshold;
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private int recordsSinceCheckpoint;
+    private final AtomicInteger pendingCheckpoints = new AtomicInteger();
+    private volatile boolean closing;
+    private volatile boolean failed;
+    private volatile Runnable failureListener;
+    private volatile Checkpoint closingSnapshot;   // instantánea al cerrar si el diario ha fallado
+
+    // Sólo en el hilo de fondo
+    private final FamilyTree shadow;   // el árbol con todo lo escrito hasta ahora
+    private FileChannel channel;
+    private long syncedLength;   // bytes del fichero ya sincronizados y válidos
+    private final List<byte[]> unsynced = new ArrayList<>();
+
+    /**
+     * @param file             fichero del diario (se crea si no existe)
+     * @param validLength      {@link Replay#getValidLength()} del replay hecho al cargar; lo que haya
+     *                         detrás se descarta antes de anexar
+     * @param shadow           copia del árbol tal como quedó tras el replay (p. ej. {@code tree.copy()});
+     *                         pasa a ser del hilo de fondo y nadie más debe tocarla
+     * @param compactThreshold registros tras los que {@link #needsCompaction()} pasa a true
+     */
+    public EditJournal(File file, long validLength, FamilyTree shadow, int compactThreshold) {
+        this.file = file;
+        this.syncedLength = validLength;
+        this.shadow = shadow;
+        this.compactThreshold = compactThreshold;
+        this.writer = new Thread(this::writeLoop, "agm-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ─── Registro (hilo de edición) ────────────────────────────────────────────
+
+    @Override
+    public void personAdded(Person p) {
+        enqueuePerson(OP_ADD_PERSON, p);
+    }
+
+    @Override
+    public void personChanged(Person p) {
+        enqueuePerson(OP_EDIT_PERSON, p);
+    }
+
+    @Override
+    public void relationAdded(Relation r) {
+        try {
+            record.writeByte(OP_ADD_RELATION);
+            writeString(record, r.getFromId());
+            writeString(record, r.getToId());
+            record.writeByte(r.getType().ordinal());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // ByteArrayOutputStream no lanza
+        }
+        enqueueRecord();
+    }
+
+    private void enqueuePerson(byte op, Person p) {
+        try {
+            record.writeByte(op);
+            writeString(record, p.getId());
+            writeString(record, p.getFirstName());
+            writeString(record, p.getLastName());
+            writeString(record, p.getQuote());
+            record.writeInt(p.getBirthDate() == null ? NO_DATE : (int) p.getBirthDate().toEpochDay());
+            record.writeInt(p.getDeathDate() == null ? NO_DATE : (int) p.getDeathDate().toEpochDay());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        enqueueRecord();
+    }
+
+    /** Enmarca el registro como [longitud][crc32][datos] para detectar una cola cortada por un cierre brusco. */
+    private void enqueueRecord() {
+        byte[] payload = recordBytes.toByteArray();
+        recordBytes.reset();
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        byte[] framed = new byte[payload.length + 8];
+        int len = payload.length, sum = (int) crc.getValue();
+        framed[0] = (byte) (len >>> 24);
+        framed[1] = (byte) (len >>> 16);
+        framed[2] = (byte) (len >>> 8);
+        framed[3] = (byte) len;
+        framed[4] = (byte) (sum >>> 24);
+        framed[5] = (byte) (sum >>> 16);
+        framed[6] = (byte) (sum >>> 8);
+        framed[7] = (byte) sum;
+        System.arraycopy(payload, 0, framed, 8, payload.length);
+        queue.add(framed);
+        recordsSinceCheckpoint++;
+    }
+
+    public boolean needsCompaction() {
+        return recordsSinceCheckpoint >= compactThreshold;
+    }
+
+    /**
+     * Encola una compactación: el árbol con todos los registros encolados hasta ahora se escribe
+     * como generación nueva de {@code target} y después se vacía el diario; los registros
+     * posteriores van al diario ya vacío. O(1) aquí: la copia y la escritura son del hilo de fondo.
+     */
+    public void checkpoint(SnapshotGenerations target, TreeSerializer serializer) {
+        pendingCheckpoints.incrementAndGet();
+        queue.add(new Checkpoint(target, serializer));
+        recordsSinceCheckpoint = 0;
+    }
+
+    /** True mientras haya una instantánea encolada o escribiéndose. */
+    public boolean isCheckpointPending() {
+        return pendingCheckpoints.get() > 0;
+    }
+
+    /**
+     * True si el diario no ha podido escribirse ni tras reintentar: los cambios desde entonces sólo
+     * se conservan si se guarda una instantánea completa.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /** Se invoca (en el hilo de fondo) cada vez que el diario pasa a fallido; enseguida si ya lo está. */
+    public void setFailureListener(Runnable listener) {
+        this.failureListener = listener;
+        if (failed && listener != null) listener.run();
+    }
+
+    /**
+     * Escribe los registros pendientes, hace fsync y detiene el hilo de fondo. Las instantáneas aún
+     * encoladas se descartan: el diario ya contiene esos cambios, así que cerrar no espera a guardar
+     * el árbol completo. Si después {@link #isFailed()}, el diario no los contiene.
+     */
+    public void close() {
+        close(null, null);
+    }
+
+    /**
+     * Como {@link #close()}, pero si el diario ha fallado guarda antes el árbol completo como
+     * generación nueva de {@code target} y vacía el diario (o lo borra si no se deja vaciar), de
+     * modo que al cargar no se reaplique nada anterior al fallo.
+     */
+    public void close(SnapshotGenerations target, TreeSerializer serializer) {
+        if (target != null) closingSnapshot = new Checkpoint(target, serializer);
+        closing = true;
+        queue.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ─── Escritura (hilo de fondo) ─────────────────────────────────────────────
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>();
+        try {
+            withRetries(() -> { });   // abre el fichero y corta la cola que replay no aceptó
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    Object item = batch.get(i);
+                    if (item == CLOSE) {
+                        commit();
+                        Checkpoint last = closingSnapshot;
+                        if (failed && last != null) snapshot(last);
+                        return;
+                    }
+                    if (item instanceof Checkpoint) {
+                        commit();
+                        checkpoint((Checkpoint) item);
+                    } else {
+                        byte[] framed = (byte[]) item;
+                        applyToShadow(framed);
+                        unsynced.add(framed);
+                    }
+                }
+                commit();   // un fsync por lote
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /** Aplica un registro enmarcado a la copia del árbol; también si el diario ha fallado, para la instantánea. */
+    private void applyToShadow(byte[] framed) {
+        try {
+            apply(new DataInputStream(new ByteArrayInputStream(framed, 8, framed.length - 8)), shadow);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // ByteArrayInputStream con un registro propio
+        }
+    }
+
+    /** Escribe y sincroniza los registros acumulados; si se reintenta, se reescriben todos desde lo último sincronizado. */
+    private void commit() {
+        if (unsynced.isEmpty()) return;
+        if (!failed) {
+            withRetries(() -> {
+                for (int i = 0; i < unsynced.size(); i++) {
+                    ByteBuffer frame = ByteBuffer.wrap(unsynced.get(i));
+                    while (frame.hasRemaining()) channel.write(frame);
+                }
+                channel.force(false);
+                syncedLength = channel.position();
+            });
+        }
+        unsynced.clear();
+    }
+
+    private void checkpoint(Checkpoint c) {
+        try {
+            if (!closing) snapshot(c);
+        } finally {
+            pendingCheckpoints.decrementAndGet();
+        }
+    }
+
+    /** Escribe la copia del árbol como instantánea y vacía el diario, que ya no hace falta. */
+    private void snapshot(Checkpoint c) {
+        try {
+            c.target.write(shadow, c.serializer);
+        } catch (IOException e) {
+            // Sin instantánea nueva el diario se conserva entero: no se pierde nada
+            Gdx.app.error("Journal", "No se pudo guardar " + c.target.getCurrent() + " (generación siguiente)", e);
+            return;
+        }
+        // La instantánea ya está en disco: el diario se vacía y, si había fallado, vuelve a usarse
+        boolean wasFailed = failed;
+        failed = false;
+        syncedLength = 0;
+        if (withRetries(() -> {
+            channel.truncate(0);
+            channel.force(false);
+        })) {
+            if (wasFailed) Gdx.app.log("Journal", "Instantánea guardada; el diario vuelve a escribirse");
+        } else if (wasFailed && file.exists() && !file.delete()) {
+            // Lo que queda es anterior al fallo y reaplicarlo desharía ediciones de la instantánea
+            Gdx.app.error("Journal", "No se pudo vaciar ni borrar " + file + "; bórrelo antes de volver a abrir el árbol");
+        }
+    }
+
+    /**
+     * Ejecuta la escritura reabriendo el fichero (cortado en lo ya sincronizado) antes de cada
+     * reintento. Si se agotan los intentos, el diario pasa a fallido y devuelve false.
+     */
+    private boolean withRetries(WriteAction action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (channel == null) open();
+                action.run();
+                return true;
+            } catch (IOException e) {
+                closeChannel();
+                if (attempt >= WRITE_ATTEMPTS) {
+                    fail(e);
+                    return false;
+                }
+                Gdx.app.error("Journal", "Fallo escribiendo " + file + "; reintento " + attempt, e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                    return false;
+                }
+            }
+        }
+    }
+
+    /** Abre el diario para anexar tras lo último válido; lo que haya detrás (un registro a medias) se corta. */
+    private void open() throws IOException {
+        channel = openChannel(file);
+        long size = channel.size();
+        if (size > syncedLength) {
+            channel.truncate(syncedLength);
+            channel.force(false);
+            Gdx.app.error("Journal", "Descartados " + (size - syncedLength) + " bytes del final de " + file
+                + " (registro incompleto o corrupto)");
+        }
+        channel.position(channel.size());
+    }
+
+    /** Separado para poder simular en las pruebas un disco que deja de aceptar escrituras. */
+    FileChannel openChannel(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        Gdx.app.error("Journal", "El diario " + file + " no se puede escribir; los cambios no están a salvo", e);
+        Runnable listener = failureListener;
+        if (listener != null) listener.run();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    // ─── Reproducción ──────────────────────────────────────────────────────────
+
+    /**
+     * Aplica sobre {@code tree} los cambios del diario. Se detiene sin error en el primer registro
+     * incompleto o corrupto (cola de una escritura interrumpida); el resultado dice dónde acaba lo
+     * válido para que el diario se abra cortado ahí y lo nuevo no quede detrás de la parte mala.
+     */
+    public static Replay replay(File file, FamilyTree tree) throws IOException {
+        if (!file.exists()) return new Replay(0, 0, 0);
+        int applied = 0;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int len = in.readInt();
+                    int sum = in.readInt();
+                    if (len < 0 || len > (1 << 26)) break;
+                    payload = new byte[len];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload, 0, len);
+                    if ((int) crc.getValue() != sum) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), tree);
+                applied++;
+                validLength += 8 + payload.length;
+            }
+        }
+        return new Replay(applied, validLength, file.length());
+    }
+
+    private static void apply(DataInputStream in, FamilyTree tree) throws IOException {
+        byte op = in.readByte();
+        if (op == OP_ADD_RELATION) {
+            String from = readString(in), to = readString(in);
+            RelationType type = RelationType.values()[in.readByte()];
+            // Un cierre entre la instantánea y el vaciado del diario deja registros ya incluidos
+            if (!tree.hasRelation(from, to, type)) tree.addRelation(from, to, type);
+            return;
+        }
+        String id = readString(in);
+        String first = readString(in), last = readString(in), quote = readString(in);
+        LocalDate birth = readDate(in), death = readDate(in);
+        Person existing = tree.getPerson(id).orElse(null);
+        if (op == OP_ADD_PERSON || existing == null) {
+            tree.addPerson(new Person(id, first, last, birth, death, quote));
+        } else {
+            existing.setFirstName(first);
+            existing.setLastName(last);
+            existing.setQuote(quote);
+            existing.setBirthDate(birth);
+            existing.setDeathDate(death);
+            tree.personChanged(existing);   // un almacén paginado debe retener la versión editada
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        int day = in.readInt();
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+}
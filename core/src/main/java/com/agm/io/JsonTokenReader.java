@@ -0,0 +1,222 @@
+package com.agm.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lector JSON de tipo "pull" que avanza token a token sin construir el documento en memoria.
+ * Acepta también el dialecto "minimal" que escribe libGDX (nombres y valores sin comillas,
+ * comas opcionales y comentarios), que es el de los familytree.json antiguos.
+ */
+class JsonTokenReader {
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos, limit;
+    private final StringBuilder sb = new StringBuilder(64);
+
+    JsonTokenReader(Reader in) {
+        this.in = in;
+    }
+
+    // ─── Estructura ────────────────────────────────────────────────────────────
+
+    void beginObject() throws IOException {
+        expect('{');
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+    }
+
+    /** True si quedan elementos en el objeto o array actual; consume la coma separadora. */
+    boolean hasNext() throws IOException {
+        int c = peekSignificant();
+        if (c == ',') {
+            pos++;
+            c = peekSignificant();
+        }
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /** True si el siguiente valor es el literal null (sin consumirlo). */
+    boolean peekNull() throws IOException {
+        if (peekSignificant() == '"') return false;
+        return fill(4) && buf[pos] == 'n' && buf[pos + 1] == 'u' && buf[pos + 2] == 'l' && buf[pos + 3] == 'l'
+            && (!fill(5) || isValueEnd(buf[pos + 4]));
+    }
+
+    int peek() throws IOException {
+        return peekSignificant();
+    }
+
+    // ─── Valores ───────────────────────────────────────────────────────────────
+
+    String nextName() throws IOException {
+        String name;
+        if (peekSignificant() == '"') {
+            name = readQuoted();
+        } else {
+            sb.setLength(0);
+            int c;
+            while ((c = read()) != -1 && c != ':') sb.append((char) c);
+            if (c != ':') throw error("Se esperaba ':'");
+            return trimmed();
+        }
+        expect(':');
+        return name;
+    }
+
+    /** Cadena, o null si el valor es el literal null. */
+    String nextString() throws IOException {
+        if (peekSignificant() == '"') return readQuoted();
+        String raw = readUnquoted();
+        return "null".equals(raw) ? null : raw;
+    }
+
+    int nextInt() throws IOException {
+        String raw = nextString();
+        if (raw == null) throw error("Se esperaba un número");
+        try {
+            return Integer.parseInt(raw);
+        } catch (NumberFormatException e) {
+            return (int) Double.parseDouble(raw);
+        }
+    }
+
+    /** Salta el valor siguiente, sea simple o compuesto. */
+    void skipValue() throws IOException {
+        int c = peekSignificant();
+        if (c == '{' || c == '[') {
+            pos++;
+            int depth = 1;
+            while (depth > 0) {
+                c = peekSignificant();
+                if (c == -1) throw error("Fin de fichero inesperado");
+                if (c == '"') {
+                    readQuoted();
+                } else if (c == '{' || c == '[') {
+                    pos++;
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    pos++;
+                    depth--;
+                } else {
+                    pos++;
+                }
+            }
+        } else {
+            nextString();
+        }
+    }
+
+    // ─── Léxico ────────────────────────────────────────────────────────────────
+
+    private String readQuoted() throws IOException {
+        expect('"');
+        sb.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) throw error("Cadena sin cerrar");
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            c = read();
+            switch (c) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int h = Character.digit(read(), 16);
+                        if (h < 0) throw error("Escape \\u no válido");
+                        code = code * 16 + h;
+                    }
+                    sb.append((char) code);
+                    break;
+                case -1: throw error("Cadena sin cerrar");
+                default: sb.append((char) c);   // \" \\ \/
+            }
+        }
+    }
+
+    /** Valor sin comillas del formato minimal: termina en ',', '}', ']' o salto de línea. */
+    private String readUnquoted() throws IOException {
+        peekSignificant();
+        sb.setLength(0);
+        while (fill(1) && !isValueEnd(buf[pos])) sb.append(buf[pos++]);
+        if (sb.length() == 0) throw error("Se esperaba un valor");
+        return trimmed();
+    }
+
+    private static boolean isValueEnd(char c) {
+        return c == ',' || c == '}' || c == ']' || c == '\n' || c == '\r';
+    }
+
+    private String trimmed() {
+        int start = 0, end = sb.length();
+        while (start < end && Character.isWhitespace(sb.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(sb.charAt(end - 1))) end--;
+        return sb.substring(start, end);
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peekSignificant() != expected) throw error("Se esperaba '" + expected + "'");
+        pos++;
+    }
+
+    /** Salta espacios y comentarios y devuelve el siguiente carácter sin consumirlo (-1 al final). */
+    private int peekSignificant() throws IOException {
+        while (fill(1)) {
+            char c = buf[pos];
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '/' && fill(2) && buf[pos + 1] == '/') {
+                while (fill(1) && buf[pos] != '\n') pos++;
+            } else if (c == '/' && fill(2) && buf[pos + 1] == '*') {
+                pos += 2;
+                while (fill(2) && !(buf[pos] == '*' && buf[pos + 1] == '/')) pos++;
+                pos = Math.min(pos + 2, limit);
+            } else {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private int read() throws IOException {
+        return fill(1) ? buf[pos++] : -1;
+    }
+
+    /** Asegura al menos {@code n} caracteres disponibles en el buffer; false si se acaba la entrada. */
+    private boolean fill(int n) throws IOException {
+        if (limit - pos >= n) return true;
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        while (limit < n) {
+            int read = in.read(buf, limit, buf.length - limit);
+            if (read == -1) return false;
+            limit += read;
+        }
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " en el JSON del árbol");
+    }
+}
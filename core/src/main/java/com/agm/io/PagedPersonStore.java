@@ -0,0 +1,130 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.PersonStore;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Personas paginadas desde un familytree.agmb: sólo ids y relaciones se cargan al abrir; nombres, fechas
+ * y citas se leen del fichero al pedir cada persona y se guardan en una caché LRU de tamaño fijo.
+ * Las personas añadidas o editadas quedan retenidas aparte y nunca se expulsan.
+ * El handle de cada registro del fichero coincide con su posición, así que no hace falta ningún mapa.
+ * Tras {@link #clear()} suelta el fichero y se comporta como un almacén en el heap.
+ * Sólo debe usarse desde un hilo; {@link #copy()} da una instancia para otro.
+ */
+public class PagedPersonStore implements PersonStore {
+    private BinaryTreeFile file;   // null tras clear()
+    private final int cacheSize;
+    private int recordCount;
+    private final IntMap<Person> pinned = new IntMap<>();
+    private final LinkedHashMap<Integer, Person> cache;
+    private int added;   // personas nuevas (handles a partir de recordCount)
+    private int pageIns;
+
+    /** @param cacheSize máximo de personas sin modificar retenidas en memoria */
+    public PagedPersonStore(BinaryTreeFile file, int cacheSize) {
+        this.file = file;
+        this.cacheSize = cacheSize;
+        this.recordCount = file.getPersonCount();
+        this.cache = newCache(cacheSize);
+    }
+
+    private PagedPersonStore(PagedPersonStore source) {
+        this.file = source.file == null ? null : source.file.duplicate();
+        this.cacheSize = source.cacheSize;
+        this.recordCount = source.recordCount;
+        this.added = source.added;
+        for (IntMap.Entry<Person> e : source.pinned.entries()) {
+            Person p = e.value;
+            pinned.put(e.key, new Person(p.getId(), p.getFirstName(), p.getLastName(),
+                p.getBirthDate(), p.getDeathDate(), p.getQuote()));
+        }
+        this.cache = newCache(cacheSize);
+    }
+
+    private static LinkedHashMap<Integer, Person> newCache(int cacheSize) {
+        return new LinkedHashMap<Integer, Person>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Person> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Registra en {@code tree} (que debe estar vacío y usar este almacén) los ids del fichero, de modo
+     * que el handle de cada uno sea su posición, y añade todas las relaciones. Es la parte que sí se
+     * carga entera.
+     */
+    public void loadInto(FamilyTree tree) {
+        if (tree.getHandleCount() != 0) throw new IllegalStateException("El árbol debe estar vacío");
+        if (file == null) return;
+        for (int i = 0; i < recordCount; i++) tree.intern(file.getPersonId(i));
+        for (int i = 0, n = file.getRelationCount(); i < n; i++) {
+            tree.addRelation(file.getRelationFrom(i), file.getRelationTo(i), file.getRelationType(i));
+        }
+    }
+
+    @Override
+    public Person get(int handle) {
+        Person p = pinned.get(handle);
+        if (p != null) return p;
+        if (handle < 0 || handle >= recordCount) return null;
+        p = cache.get(handle);
+        if (p != null) return p;
+        p = file.readPerson(handle);
+        pageIns++;
+        cache.put(handle, p);
+        return p;
+    }
+
+    @Override
+    public void put(int handle, Person p) {
+        cache.remove(handle);
+        if (pinned.put(handle, p) == null && handle >= recordCount) added++;
+    }
+
+    @Override
+    public void changed(int handle, Person p) {
+        cache.remove(handle);
+        pinned.put(handle, p);
+    }
+
+    @Override
+    public boolean contains(int handle) {
+        return (handle >= 0 && handle < recordCount) || pinned.containsKey(handle);
+    }
+
+    @Override
+    public int size() {
+        return recordCount + added;
+    }
+
+    /** Olvida el fichero (el mapeo se libera cuando nadie más lo referencia) y todo lo retenido. */
+    @Override
+    public void clear() {
+        file = null;
+        recordCount = 0;
+        added = 0;
+        pinned.clear();
+        cache.clear();
+    }
+
+    @Override
+    public PersonStore copy() {
+        return new PagedPersonStore(this);
+    }
+
+    /** Personas leídas del fichero desde que se abrió (fallos de caché). */
+    public int getPageInCount() {
+        return pageIns;
+    }
+
+    public int getResidentCount() {
+        return cache.size() + pinned.size;
+    }
+}
@@ -0,0 +1,84 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Instantáneas numeradas por generación: {@code familytree.agmb} es la 0 y después vienen
+ * {@code familytree-1.agmb}, {@code familytree-2.agmb}… Cada instantánea se escribe con un nombre
+ * nuevo y al cargar se abre la más alta, así que nunca se sustituye un fichero que siga abierto o
+ * mapeado (en Windows no se puede renombrar encima ni borrar). Las generaciones anteriores se borran
+ * en cuanto se puede; si alguna sigue mapeada, se vuelve a intentar en la siguiente escritura y al
+ * arrancar.
+ */
+public final class SnapshotGenerations {
+    private final File dir;        // null = directorio de trabajo
+    private final String base;
+    private final String extension;
+    private int current = -1;      // generación vigente; -1 si no hay ninguna
+
+    /** @param first nombre de la generación 0, p. ej. {@code familytree.agmb} */
+    public SnapshotGenerations(File first) {
+        this.dir = first.getParentFile();
+        String name = first.getName();
+        int dot = name.lastIndexOf('.');
+        this.base = dot < 0 ? name : name.substring(0, dot);
+        this.extension = dot < 0 ? "" : name.substring(dot);
+        String[] names = (dir != null ? dir : new File(".")).list();
+        if (names != null) {
+            for (String n : names) current = Math.max(current, generationOf(n));
+        }
+        deleteOlder();
+    }
+
+    /** Instantánea más reciente, o null si no hay ninguna. */
+    public synchronized File getCurrent() {
+        return current < 0 ? null : fileFor(current);
+    }
+
+    /**
+     * Escribe {@code tree} de forma atómica como generación siguiente, la hace vigente y borra las
+     * anteriores que se dejen. Si falla, la vigente sigue siendo la de antes.
+     */
+    public File write(FamilyTree tree, TreeSerializer serializer) throws IOException {
+        File next;
+        synchronized (this) {
+            next = fileFor(current + 1);
+        }
+        AtomicFiles.write(next, tree, serializer);
+        synchronized (this) {
+            current++;
+            deleteOlder();
+        }
+        return next;
+    }
+
+    private File fileFor(int generation) {
+        return new File(dir, generation == 0 ? base + extension : base + "-" + generation + extension);
+    }
+
+    /** Generación del nombre, o -1 si no es una instantánea de esta serie. */
+    private int generationOf(String name) {
+        if (!name.startsWith(base) || !name.endsWith(extension)) return -1;
+        String middle = name.substring(base.length(), name.length() - extension.length());
+        if (middle.isEmpty()) return 0;
+        if (middle.length() < 2 || middle.charAt(0) != '-') return -1;
+        for (int i = 1; i < middle.length(); i++) {
+            if (!Character.isDigit(middle.charAt(i))) return -1;
+        }
+        try {
+            return Integer.parseInt(middle.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void deleteOlder() {
+        for (int g = current - 1; g >= 0; g--) {
+            File old = fileFor(g);
+            if (old.exists()) old.delete();   // si sigue mapeada se reintenta la próxima vez
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * Conversión entre familytree.json y familytree.agmb, en ambos sentidos. Desde la línea de órdenes
+ * ({@code ./gradlew core:convertTree -Pfrom=… -Pto=…}) el formato sale de la extensión de cada fichero.
+ */
+public final class TreeFormatConverter {
+    private static final String BINARY_EXTENSION = ".agmb";
+
+    private TreeFormatConverter() {
+    }
+
+    public static void jsonToBinary(InputStream json, OutputStream binary) throws IOException {
+        FamilyTree tree = new FamilyTree();
+        TreeJsonReader.read(json, tree);
+        BinaryTreeWriter.write(tree, binary);
+    }
+
+    public static void binaryToJson(ByteBuffer binary, OutputStream json) throws IOException {
+        FamilyTree tree = new FamilyTree();
+        new BinaryTreeFile(binary).loadInto(tree);
+        TreeJsonWriter.write(tree, json);
+    }
+
+    /**
+     * Convierte el fichero {@code from} en {@code to}, que se escribe de forma atómica. Conviene hacerlo
+     * con el editor cerrado: el editor abre la generación más alta de cada formato (ver
+     * {@link SnapshotGenerations}) y aplica encima familytree.journal, así que el origen debe ser la
+     * generación vigente y el destino la 0 de un formato del que no haya otras.
+     */
+    public static void convert(File from, File to) throws IOException {
+        FamilyTree tree = new FamilyTree();
+        if (isBinary(from)) {
+            new BinaryTreeFile(ByteBuffer.wrap(Files.readAllBytes(from.toPath()))).loadInto(tree);
+        } else {
+            try (InputStream in = new FileInputStream(from)) {
+                TreeJsonReader.read(in, tree);
+            }
+        }
+        AtomicFiles.write(to, tree, isBinary(to) ? BinaryTreeWriter::write : TreeJsonWriter::write);
+    }
+
+    private static boolean isBinary(File file) {
+        return file.getName().endsWith(BINARY_EXTENSION);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: TreeFormatConverter <origen> <destino>  (.json o " + BINARY_EXTENSION + ")");
+            System.exit(2);
+        }
+        convert(new File(args[0]), new File(args[1]));
+    }
+}
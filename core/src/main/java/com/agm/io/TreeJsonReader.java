@@ -0,0 +1,117 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.RelationType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Carga familytree.json registro a registro, sin leer el fichero entero a un String.
+ * Entiende tanto lo que escribe {@link TreeJsonWriter} como los ficheros antiguos de libGDX Json.
+ */
+public final class TreeJsonReader {
+    private TreeJsonReader() {
+    }
+
+    /** Añade a {@code tree} las personas y relaciones leídas; no cierra el stream. */
+    public static void read(InputStream in, FamilyTree tree) throws IOException {
+        read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16), tree);
+    }
+
+    public static void read(Reader reader, FamilyTree tree) throws IOException {
+        JsonTokenReader json = new JsonTokenReader(reader);
+        if (json.peek() == -1) return;   // fichero vacío
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if ("people".equals(name) && !json.peekNull()) {
+                readPeople(json, tree);
+            } else if ("relations".equals(name) && !json.peekNull()) {
+                readRelations(json, tree);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void readPeople(JsonTokenReader json, FamilyTree tree) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if ("class".equals(key)) {   // etiqueta de tipo que añadía libGDX Json
+                json.skipValue();
+                continue;
+            }
+            tree.addPerson(readPerson(json, key));
+        }
+        json.endObject();
+    }
+
+    private static Person readPerson(JsonTokenReader json, String key) throws IOException {
+        String id = key, firstName = "", lastName = "", quote = "";
+        LocalDate birth = null, death = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id": id = json.nextString(); break;
+                case "firstName": firstName = json.nextString(); break;
+                case "lastName": lastName = json.nextString(); break;
+                case "quote": quote = json.nextString(); break;
+                case "birthDate": birth = readDate(json); break;
+                case "deathDate": death = readDate(json); break;
+                default: json.skipValue();
+            }
+        }
+        json.endObject();
+        return new Person(id, firstName, lastName, birth, death, quote);
+    }
+
+    /** Fecha como objeto {year, month, day} (formato libGDX) o como texto ISO. */
+    private static LocalDate readDate(JsonTokenReader json) throws IOException {
+        if (json.peekNull()) {
+            json.nextString();
+            return null;
+        }
+        if (json.peek() != '{') return LocalDate.parse(json.nextString());
+        int year = 0, month = 1, day = 1;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "year": year = json.nextInt(); break;
+                case "month": month = json.nextInt(); break;
+                case "day": day = json.nextInt(); break;
+                default: json.skipValue();
+            }
+        }
+        json.endObject();
+        return LocalDate.of(year, month, day);
+    }
+
+    private static void readRelations(JsonTokenReader json, FamilyTree tree) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            String from = null, to = null;
+            RelationType type = RelationType.PARENT;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "fromId": from = json.nextString(); break;
+                    case "toId": to = json.nextString(); break;
+                    case "type": type = RelationType.valueOf(json.nextString()); break;
+                    default: json.skipValue();
+                }
+            }
+            json.endObject();
+            if (from != null && to != null) tree.addRelation(from, to, type);
+        }
+        json.endArray();
+    }
+}
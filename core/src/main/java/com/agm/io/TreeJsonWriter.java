@@ -0,0 +1,103 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Escribe el árbol directamente al stream de salida, persona a persona, en el mismo formato
+ * que generaba libGDX Json (fechas como {year, month, day} y etiqueta de clase en el mapa),
+ * de modo que versiones anteriores siguen pudiendo leerlo.
+ */
+public final class TreeJsonWriter {
+    private TreeJsonWriter() {
+    }
+
+    /** Escribe y vacía el buffer, pero no cierra el stream. */
+    public static void write(FamilyTree tree, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        write(tree, w);
+        w.flush();
+    }
+
+    public static void write(FamilyTree tree, Writer w) throws IOException {
+        w.write("{\"people\":{\"class\":\"java.util.HashMap\"");
+        for (int h = 0, n = tree.getHandleCount(); h < n; h++) {
+            if (!tree.hasPerson(h)) continue;
+            Person p = tree.getPersonByHandle(h);
+            w.write(',');
+            string(w, p.getId());
+            w.write(":{\"id\":");
+            string(w, p.getId());
+            w.write(",\"firstName\":");
+            string(w, p.getFirstName());
+            w.write(",\"lastName\":");
+            string(w, p.getLastName());
+            w.write(",\"birthDate\":");
+            date(w, p.getBirthDate());
+            w.write(",\"deathDate\":");
+            date(w, p.getDeathDate());
+            w.write(",\"quote\":");
+            string(w, p.getQuote());
+            w.write('}');
+        }
+        w.write("},\"relations\":[");
+        for (int i = 0, n = tree.getRelationCount(); i < n; i++) {
+            if (i > 0) w.write(',');
+            w.write("{\"fromId\":");
+            string(w, tree.idOf(tree.getRelationFrom(i)));
+            w.write(",\"toId\":");
+            string(w, tree.idOf(tree.getRelationTo(i)));
+            w.write(",\"type\":\"");
+            w.write(tree.getRelationType(i).name());
+            w.write("\"}");
+        }
+        w.write("]}");
+    }
+
+    private static void date(Writer w, LocalDate d) throws IOException {
+        if (d == null) {
+            w.write("null");
+            return;
+        }
+        w.write("{\"year\":");
+        w.write(Integer.toString(d.getYear()));
+        w.write(",\"month\":");
+        w.write(Integer.toString(d.getMonthValue()));
+        w.write(",\"day\":");
+        w.write(Integer.toString(d.getDayOfMonth()));
+        w.write('}');
+    }
+
+    private static void string(Writer w, String s) throws IOException {
+        if (s == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': w.write("\\\""); break;
+                case '\\': w.write("\\\\"); break;
+                case '\n': w.write("\\n"); break;
+                case '\r': w.write("\\r"); break;
+                case '\t': w.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+            }
+        }
+        w.write('"');
+    }
+}
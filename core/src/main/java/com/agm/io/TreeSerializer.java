@@ -0,0 +1,11 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** Forma de volcar un árbol completo; {@code TreeJsonWriter::write} y {@code BinaryTreeWriter::write} encajan. */
+public interface TreeSerializer {
+    void write(FamilyTree tree, OutputStream out) throws IOException;
+}
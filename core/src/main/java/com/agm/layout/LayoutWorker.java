@@ -0,0 +1,87 @@
+package com.agm.layout;
+
+import com.agm.metrics.MetricsRegistry;
+import com.agm.model.ChildLookup;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcula layouts completos en un hilo de fondo sobre una instantánea del árbol y publica el
+ * resultado en el hilo de render con {@code Gdx.app.postRunnable}. Una petición nueva cancela
+ * la anterior; mientras tanto se sigue pintando el último layout publicado.
+ */
+public class LayoutWorker implements Disposable {
+    /** Recibe el layout terminado; siempre se invoca en el hilo de render. */
+    public interface Listener {
+        void layoutReady(TreeLayout layout);
+    }
+
+    private final float leafWidth;
+    private final float verticalGap;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "agm-layout");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending;
+    private long completedGeneration;   // sólo se toca en el hilo de render
+    private volatile MetricsRegistry.Metric duration;
+
+    public LayoutWorker(float leafWidth, float verticalGap) {
+        this.leafWidth = leafWidth;
+        this.verticalGap = verticalGap;
+    }
+
+    /**
+     * Encola un layout de {@code snapshot} con la raíz (handle) en (x, y). Llamar desde el hilo de render.
+     * El snapshot no debe modificarse después (usar FamilyTree.snapshotStructure()).
+     */
+    public void submit(ChildLookup snapshot, int root, float x, float y, Listener listener) {
+        final long gen = generation.incrementAndGet();
+        if (pending != null) pending.cancel(true);
+        pending = executor.submit(() -> {
+            TreeLayout layout = new TreeLayout(leafWidth, verticalGap);
+            long start = System.nanoTime();
+            try {
+                layout.layout(snapshot, root, x, y);
+                MetricsRegistry.Metric metric = duration;
+                if (metric != null) metric.record(System.nanoTime() - start);
+            } catch (CancellationException e) {
+                return;
+            } catch (RuntimeException e) {
+                Gdx.app.postRunnable(() -> {
+                    if (gen == generation.get()) completedGeneration = gen;
+                    Gdx.app.error("Layout", "Fallo calculando el layout", e);
+                });
+                return;
+            }
+            Gdx.app.postRunnable(() -> {
+                if (gen != generation.get()) return;   // ya hay otro más reciente en camino
+                completedGeneration = gen;
+                listener.layoutReady(layout);
+            });
+        });
+    }
+
+    /** Métrica donde anotar lo que tarda cada layout completo (sin contar los cancelados); null para ninguna. */
+    public void setDurationMetric(MetricsRegistry.Metric duration) {
+        this.duration = duration;
+    }
+
+    /** True si hay un layout pedido que aún no se ha publicado. Hilo de render. */
+    public boolean isBusy() {
+        return completedGeneration != generation.get();
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,324 @@
+package com.agm.layout;
+
+import com.agm.model.ChildLookup;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Layout en árbol descendente: cada hoja ocupa un ancho fijo, cada padre la suma de sus hijos
+ * y se centra sobre ellos. Recorridos iterativos (sin recursión) en tiempo lineal sobre el
+ * índice de hijos de FamilyTree, así que no depende de la profundidad del árbol.
+ * Puede ejecutarse en un hilo de fondo sobre una instantánea; si el hilo se interrumpe,
+ * {@link #layout} aborta con CancellationException.
+ */
+public class TreeLayout {
+    private final float leafWidth;
+    private final float verticalGap;
+
+    // Nodos alcanzables desde la raíz, en preorden (cada padre antes que sus hijos)
+    private final List<Node> order = new ArrayList<>();
+    private final IntMap<Node> byHandle = new IntMap<>();
+    private final List<Node> stack = new ArrayList<>();
+
+    // Nodos movidos o añadidos por la última actualización incremental
+    private final List<Node> changed = new ArrayList<>();
+    private final List<Node> path = new ArrayList<>();
+    private boolean verifyIncremental = false;
+
+    static final class Node {
+        final int handle;
+        Node parent;
+        final List<Node> children = new ArrayList<>(2);
+        float width;
+        int size;   // nodos del subárbol, él incluido
+        float x, y;
+
+        Node(int handle) {
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * @param leafWidth   ancho reservado para un nodo sin hijos
+     * @param verticalGap distancia vertical entre generaciones
+     */
+    public TreeLayout(float leafWidth, float verticalGap) {
+        this.leafWidth = leafWidth;
+        this.verticalGap = verticalGap;
+    }
+
+    /** Calcula anchos y posiciones de todo lo que cuelga de {@code root} (handle), con la raíz en (x, y). */
+    public void layout(ChildLookup tree, int root, float x, float y) {
+        buildPreorder(tree, root);
+        if (order.isEmpty()) return;
+        computeWidths();
+        Node rootNode = order.get(0);
+        rootNode.x = x;
+        rootNode.y = y;
+        placeChildren();
+    }
+
+    /** DFS con pila explícita; los hijos se apilan al revés para visitarlos en su orden. */
+    private void buildPreorder(ChildLookup tree, int rootHandle) {
+        order.clear();
+        byHandle.clear();
+        stack.clear();
+        Node root = new Node(rootHandle);
+        byHandle.put(rootHandle, root);
+        stack.add(root);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            order.add(node);
+            checkCancelled(order.size());
+            IntArray children = tree.getChildren(node.handle);
+            for (int i = 0, n = children.size; i < n; i++) {
+                int ch = children.get(i);
+                if (byHandle.containsKey(ch)) continue;   // ya colocado (o ciclo): se ignora
+                Node child = new Node(ch);
+                child.parent = node;
+                byHandle.put(ch, child);
+                node.children.add(child);
+            }
+            for (int i = node.children.size() - 1; i >= 0; i--) stack.add(node.children.get(i));
+        }
+    }
+
+    /** Post-orden: recorrer el preorden al revés garantiza que los hijos ya tienen ancho. */
+    private void computeWidths() {
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            node.width = sumChildWidths(node);
+            int size = 1;
+            for (int c = 0, n = node.children.size(); c < n; c++) size += node.children.get(c).size;
+            node.size = size;
+        }
+    }
+
+    float sumChildWidths(Node node) {
+        if (node.children.isEmpty()) return leafWidth;
+        float total = 0f;
+        for (int i = 0, n = node.children.size(); i < n; i++) total += node.children.get(i).width;
+        return total;
+    }
+
+    /** Pre-orden: cada padre ya está colocado cuando se reparte el ancho entre sus hijos. */
+    private void placeChildren() {
+        for (int i = 0, n = order.size(); i < n; i++) {
+            placeChildrenOf(order.get(i));
+            checkCancelled(i);
+        }
+    }
+
+    /** Cada pocos miles de nodos comprueba si el hilo fue interrumpido (layout sustituido por otro). */
+    private static void checkCancelled(int count) {
+        if ((count & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Layout cancelado");
+        }
+    }
+
+    void placeChildrenOf(Node node) {
+        float startX = node.x - node.width / 2f;
+        float childY = node.y - verticalGap;
+        for (int i = 0, n = node.children.size(); i < n; i++) {
+            Node c = node.children.get(i);
+            c.x = startX + c.width / 2f;
+            c.y = childY;
+            startX += c.width;
+        }
+    }
+
+    // ─── Actualización incremental ─────────────────────────────────────────────
+
+    /**
+     * Aplica al layout actual una relación padre→hijo recién añadida al árbol sin recalcularlo entero:
+     * sólo se rehacen los anchos del camino hasta la raíz y se desplazan los subárboles hermanos afectados.
+     * Los nodos tocados quedan en {@link #getChangedCount()}/{@link #getChangedHandle(int)}.
+     *
+     * @return false si el cambio no es el alta de una hoja y hace falta un layout completo
+     */
+    public boolean applyChildAdded(ChildLookup tree, int parentHandle, int childHandle) {
+        changed.clear();
+        Node parent = byHandle.get(parentHandle);
+        if (parent == null) return true;   // el padre no cuelga de la raíz: nada visible cambia
+        if (byHandle.containsKey(childHandle) || tree.getChildren(childHandle).size > 0) return false;
+
+        Node child = new Node(childHandle);
+        child.parent = parent;
+        child.width = leafWidth;
+        child.size = 1;
+        parent.children.add(child);
+        byHandle.put(childHandle, child);
+        order.add(child);   // el preorden deja de ser exacto, pero sólo se usa para listar nodos
+        changed.add(child);
+
+        // 1) Anchos: del padre hacia la raíz, parando en cuanto uno no cambie
+        path.clear();
+        for (Node n = parent; n != null; n = n.parent) {
+            path.add(n);
+            n.size++;
+        }
+        int top = -1;   // índice en path del ancestro más alto cuyo ancho cambió
+        for (int i = 0; i < path.size(); i++) {
+            Node n = path.get(i);
+            float w = sumChildWidths(n);
+            if (w == n.width) break;
+            n.width = w;
+            top = i;
+        }
+
+        // 2) Posiciones: desde el padre del ancestro más alto que cambió (o la raíz) hasta el padre del nuevo nodo.
+        //    En cada nivel se recolocan los hijos; los que no están en el camino se trasladan con su subárbol.
+        int from = top < 0 ? 0 : Math.min(top + 1, path.size() - 1);
+        for (int i = from; i >= 0; i--) {
+            Node n = path.get(i);
+            Node next = i > 0 ? path.get(i - 1) : child;
+            float startX = n.x - n.width / 2f;
+            float childY = n.y - verticalGap;
+            for (int c = 0, cn = n.children.size(); c < cn; c++) {
+                Node ch = n.children.get(c);
+                float oldX = ch.x;
+                ch.x = startX + ch.width / 2f;
+                ch.y = childY;
+                startX += ch.width;
+                float dx = ch.x - oldX;
+                if (ch == child || dx == 0f) continue;
+                if (ch == next) changed.add(ch);   // sus hijos se recolocan en la siguiente vuelta
+                else shiftSubtree(ch, dx);
+            }
+        }
+
+        if (verifyIncremental) verifyAgainstFull(tree);
+        return true;
+    }
+
+    /** Traslada en horizontal todos los descendientes de {@code root} (el propio root ya está movido). */
+    private void shiftSubtree(Node root, float dx) {
+        changed.add(root);
+        stack.clear();
+        for (int i = 0; i < root.children.size(); i++) stack.add(root.children.get(i));
+        while (!stack.isEmpty()) {
+            Node n = stack.remove(stack.size() - 1);
+            n.x += dx;
+            changed.add(n);
+            for (int i = 0; i < n.children.size(); i++) stack.add(n.children.get(i));
+        }
+    }
+
+    /** Modo depuración: tras cada actualización incremental se compara con un layout completo. */
+    public void setVerifyIncremental(boolean verify) {
+        this.verifyIncremental = verify;
+    }
+
+    private void verifyAgainstFull(ChildLookup tree) {
+        Node root = order.get(0);
+        TreeLayout full = new TreeLayout(leafWidth, verticalGap);
+        full.layout(tree, root.handle, root.x, root.y);
+        if (full.size() != byHandle.size) {
+            throw new IllegalStateException("Layout incremental con " + byHandle.size
+                + " nodos; el completo tiene " + full.size());
+        }
+        for (int i = 0, n = full.size(); i < n; i++) {
+            Node node = byHandle.get(full.getHandle(i));
+            if (node == null || Math.abs(node.x - full.getX(i)) > 1e-3f || Math.abs(node.y - full.getY(i)) > 1e-3f
+                || node.size != full.getSubtreeSize(full.getHandle(i))) {
+                throw new IllegalStateException("Layout incremental diverge en el handle " + full.getHandle(i));
+            }
+        }
+    }
+
+    public int getChangedCount() {
+        return changed.size();
+    }
+
+    public int getChangedHandle(int index) {
+        return changed.get(index).handle;
+    }
+
+    public float getChangedX(int index) {
+        return changed.get(index).x;
+    }
+
+    public float getChangedY(int index) {
+        return changed.get(index).y;
+    }
+
+    // ─── Resultado ─────────────────────────────────────────────────────────────
+
+    /** Número de nodos colocados en el último layout. */
+    public int size() {
+        return order.size();
+    }
+
+    public int getHandle(int index) {
+        return order.get(index).handle;
+    }
+
+    public float getX(int index) {
+        return order.get(index).x;
+    }
+
+    public float getY(int index) {
+        return order.get(index).y;
+    }
+
+    public boolean contains(int handle) {
+        return byHandle.containsKey(handle);
+    }
+
+    /** Ancho del subárbol de {@code handle}, o 0 si no forma parte del layout. */
+    public float getSubtreeWidth(int handle) {
+        Node node = byHandle.get(handle);
+        return node == null ? 0f : node.width;
+    }
+
+    /** Nodos del subárbol de {@code handle} (él incluido), o 0 si no forma parte del layout. */
+    public int getSubtreeSize(int handle) {
+        Node node = byHandle.get(handle);
+        return node == null ? 0 : node.size;
+    }
+
+    /** Padre de {@code handle} en el layout, o -1 si es la raíz o no forma parte de él. */
+    public int getParentHandle(int handle) {
+        Node node = byHandle.get(handle);
+        return node == null || node.parent == null ? -1 : node.parent.handle;
+    }
+
+    // ─── Agrupado para vistas lejanas ──────────────────────────────────────────
+
+    /**
+     * Recorta el árbol para dibujarlo de lejos. Baja desde la raíz y se detiene en cada subárbol más
+     * estrecho que {@code maxWidth}, que se representa sólo con su raíz. Se saltan los subárboles que
+     * quedan fuera de [minX, maxX] o cuya raíz está por debajo de {@code minY} (los hijos siempre
+     * quedan más abajo), salvo la raíz del subárbol si la línea desde su padre entra en la zona: sin
+     * ella no se dibujaría ese tramo, p. ej. en el borde inferior de la vista o de una tesela.
+     * Añade a {@code out} el handle de cada nodo a dibujar y a {@code sizes} cuántos representa: 1 si
+     * es un nodo normal, el tamaño del subárbol si es un grupo.
+     */
+    public void collectClusters(float minX, float maxX, float minY, float maxWidth, IntArray out, IntArray sizes) {
+        if (order.isEmpty()) return;
+        stack.clear();
+        stack.add(order.get(0));
+        while (!stack.isEmpty()) {
+            Node n = stack.remove(stack.size() - 1);
+            float half = n.width / 2f;
+            boolean inside = n.x + half >= minX && n.x - half <= maxX && n.y >= minY;
+            if (!inside && !edgeOverlaps(n, minX, maxX, minY)) continue;
+            boolean collapse = n.width < maxWidth && !n.children.isEmpty();
+            out.add(n.handle);
+            sizes.add(collapse ? n.size : 1);
+            if (collapse || !inside) continue;
+            for (int i = n.children.size() - 1; i >= 0; i--) stack.add(n.children.get(i));
+        }
+    }
+
+    /** Si la caja de la línea padre→nodo toca la zona; la raíz no tiene línea. */
+    private static boolean edgeOverlaps(Node n, float minX, float maxX, float minY) {
+        Node p = n.parent;
+        return p != null && p.y >= minY && Math.max(p.x, n.x) >= minX && Math.min(p.x, n.x) <= maxX;
+    }
+}
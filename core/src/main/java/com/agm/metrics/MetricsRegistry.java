@@ -0,0 +1,200 @@
+package com.agm.metrics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Contadores de rendimiento de la aplicación con nombre: duraciones, secciones del frame y valores
+ * sueltos. Las métricas se registran una vez y quien mide guarda la referencia, así que medir no
+ * busca por nombre ni reserva memoria. Se pueden escribir desde cualquier hilo (el guardado y el
+ * layout miden en segundo plano); el volcado a JSON o al log sirve para diagnosticar sin profiler.
+ */
+public class MetricsRegistry {
+    public enum Unit {
+        NANOS, COUNT, BYTES
+    }
+
+    /**
+     * Una serie de muestras: la última, la máxima, la media de todas y una media móvil
+     * exponencial que sigue los cambios recientes sin guardar historial.
+     */
+    public static final class Metric {
+        private static final double SMOOTHING = 0.1;
+
+        private final String name;
+        private final Unit unit;
+        private final boolean perFrame;
+        private long last, max, count;
+        private double total, smoothed;
+        // Secciones del frame: se acumulan entre start/stop y se registran en endFrame()
+        private long started, pending;
+
+        Metric(String name, Unit unit, boolean perFrame) {
+            this.name = name;
+            this.unit = unit;
+            this.perFrame = perFrame;
+        }
+
+        public synchronized void record(long value) {
+            last = value;
+            if (value > max) max = value;
+            total += value;
+            smoothed = count == 0 ? value : smoothed + (value - smoothed) * SMOOTHING;
+            count++;
+        }
+
+        /** Empieza a cronometrar; en una sección del frame puede repetirse varias veces por frame. */
+        public void start() {
+            started = System.nanoTime();
+        }
+
+        /** Para el cronómetro: registra la duración, o la suma a la del frame si es una sección. */
+        public void stop() {
+            long elapsed = System.nanoTime() - started;
+            if (perFrame) {
+                pending += elapsed;
+            } else {
+                record(elapsed);
+            }
+        }
+
+        void endFrame() {
+            record(pending);
+            pending = 0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Unit getUnit() {
+            return unit;
+        }
+
+        public synchronized long getLast() {
+            return last;
+        }
+
+        public synchronized long getMax() {
+            return max;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized double getMean() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        /** Media móvil: la cifra estable para mostrar en pantalla. */
+        public synchronized double getSmoothed() {
+            return smoothed;
+        }
+
+        /** Añade el valor con su unidad legible (ms, MB o tal cual) sin crear Strings intermedios. */
+        public static void appendValue(StringBuilder out, Unit unit, double value) {
+            switch (unit) {
+                case NANOS:
+                    appendFixed(out, value / 1e6, 2);
+                    out.append(" ms");
+                    break;
+                case BYTES:
+                    appendFixed(out, value / (1024 * 1024), 1);
+                    out.append(" MB");
+                    break;
+                default:
+                    out.append(Math.round(value));
+            }
+        }
+
+        private static void appendFixed(StringBuilder out, double value, int decimals) {
+            long scale = decimals == 1 ? 10 : 100;
+            long scaled = Math.round(value * scale);
+            out.append(scaled / scale).append('.');
+            long fraction = Math.abs(scaled % scale);
+            if (decimals == 2 && fraction < 10) out.append('0');
+            out.append(fraction);
+        }
+    }
+
+    private final Array<Metric> metrics = new Array<>();
+    private final Array<Metric> sections = new Array<>();
+
+    /** Duración que se mide de una vez (guardar, cargar, un layout). */
+    public Metric timer(String name) {
+        return register(name, Unit.NANOS, false);
+    }
+
+    /** Parte del frame; puede medirse a trozos y cuenta una muestra por frame con {@link #endFrame()}. */
+    public Metric section(String name) {
+        return register(name, Unit.NANOS, true);
+    }
+
+    /** Valor instantáneo (nodos visibles, memoria…). */
+    public Metric gauge(String name, Unit unit) {
+        return register(name, unit, false);
+    }
+
+    /** Si ya existe una métrica igual se devuelve esa (una pantalla puede mostrarse más de una vez). */
+    private synchronized Metric register(String name, Unit unit, boolean perFrame) {
+        for (int i = 0; i < metrics.size; i++) {
+            Metric m = metrics.get(i);
+            if (!m.name.equals(name)) continue;
+            if (m.unit != unit || m.perFrame != perFrame) throw new IllegalArgumentException("Métrica repetida con otro tipo: " + name);
+            return m;
+        }
+        Metric m = new Metric(name, unit, perFrame);
+        metrics.add(m);
+        if (perFrame) sections.add(m);
+        return m;
+    }
+
+    /** Cierra el frame: cada sección registra lo acumulado (0 si no se midió). Hilo de render. */
+    public void endFrame() {
+        for (int i = 0; i < sections.size; i++) sections.get(i).endFrame();
+    }
+
+    public synchronized int size() {
+        return metrics.size;
+    }
+
+    public synchronized Metric get(int index) {
+        return metrics.get(index);
+    }
+
+    /** Vuelca todas las métricas como un objeto JSON: {nombre: {unit, last, mean, smoothed, max, count}}. */
+    public synchronized void writeJson(Writer w) throws IOException {
+        w.write("{\n");
+        for (int i = 0; i < metrics.size; i++) {
+            Metric m = metrics.get(i);
+            w.write("  \"" + m.name + "\": {\"unit\": \"" + m.unit.name().toLowerCase(Locale.ROOT) + "\""
+                + ", \"last\": " + m.getLast()
+                + ", \"mean\": " + Math.round(m.getMean())
+                + ", \"smoothed\": " + Math.round(m.getSmoothed())
+                + ", \"max\": " + m.getMax()
+                + ", \"count\": " + m.getCount() + "}");
+            w.write(i < metrics.size - 1 ? ",\n" : "\n");
+        }
+        w.write("}\n");
+    }
+
+    /** Una línea de log por métrica con su media móvil y su máximo. */
+    public synchronized void log(String tag) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < metrics.size; i++) {
+            Metric m = metrics.get(i);
+            line.setLength(0);
+            line.append(m.name).append(": ");
+            Metric.appendValue(line, m.unit, m.getSmoothed());
+            line.append(" (máx ");
+            Metric.appendValue(line, m.unit, m.getMax());
+            line.append(", ").append(m.getCount()).append(" muestras)");
+            Gdx.app.log(tag, line.toString());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/** Acceso de sólo lectura a los hijos de cada persona; lo implementan el árbol vivo y sus instantáneas. */
+public interface ChildLookup {
+    /** Handles de los hijos directos, en orden de inserción; vacío si no tiene. No se debe modificar. */
+    IntArray getChildren(int handle);
+}
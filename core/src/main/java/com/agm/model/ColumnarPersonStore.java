@@ -0,0 +1,273 @@
+package com.agm.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Personas en columnas paralelas indexadas por handle, sin un objeto por persona: fechas como día
+ * epoch en un int[] y nombres y citas como (offset, longitud) dentro de un único char[] compartido.
+ * Unos 40 bytes por persona más el texto, frente a los cientos de un Person con sus LocalDate.
+ * {@link #get} devuelve una vista ligera que lee y escribe las columnas. Las últimas vistas se
+ * guardan en una tabla pequeña de tamaño fijo (una por posición, handle módulo su tamaño) para no
+ * crear otra en cada frame; una vista expulsada sigue siendo válida, sólo deja de reutilizarse.
+ */
+public class ColumnarPersonStore implements PersonStore {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_STRING = -1;
+    private static final int VIEW_CACHE_SIZE = 1024;   // potencia de dos
+
+    // Campos de texto: cada uno ocupa dos ints (offset, longitud) en strings[]
+    private static final int FIRST_NAME = 0, LAST_NAME = 1, QUOTE = 2, STRING_FIELDS = 3;
+
+    private String[] ids;        // mismo String que guarda IdTable; null = handle sin persona
+    private int[] birth, death;
+    private int[] nameRevision;  // aquí y no en la vista, que puede descartarse y volver a crearse
+    private int[] strings;
+    private char[] chars;
+    private int charCount;
+    private int garbageChars;    // texto sobrescrito que ocupa sitio hasta compactar
+    private int size;
+    private final PersonView[] views = new PersonView[VIEW_CACHE_SIZE];
+
+    public ColumnarPersonStore() {
+        this(64, 64 * 16);
+    }
+
+    /**
+     * @param capacity      personas previstas
+     * @param charsCapacity caracteres de texto previstos (nombres, apellidos y citas)
+     */
+    public ColumnarPersonStore(int capacity, int charsCapacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new String[capacity];
+        birth = new int[capacity];
+        death = new int[capacity];
+        nameRevision = new int[capacity];
+        strings = new int[capacity * STRING_FIELDS * 2];
+        chars = new char[Math.max(charsCapacity, 16)];
+    }
+
+    @Override
+    public Person get(int handle) {
+        if (!contains(handle)) return null;
+        int slot = handle & (VIEW_CACHE_SIZE - 1);
+        PersonView view = views[slot];
+        if (view == null || view.handle != handle) {
+            view = new PersonView(this, handle);
+            views[slot] = view;
+        }
+        return view;
+    }
+
+    @Override
+    public void put(int handle, Person p) {
+        if (isView(p, handle)) return;
+        ensureCapacity(handle + 1);
+        if (ids[handle] == null) {
+            size++;
+            // Huecos de un clear() anterior: el texto viejo ya no cuenta
+            Arrays.fill(strings, handle * STRING_FIELDS * 2, (handle + 1) * STRING_FIELDS * 2, NO_STRING);
+        }
+        ids[handle] = p.getId();
+        write(handle, p);
+        nameRevision[handle]++;   // las vistas que ya circulen ven los datos nuevos
+    }
+
+    @Override
+    public void changed(int handle, Person p) {
+        // Las vistas propias ya escribieron en las columnas; un Person suelto se vuelca entero
+        if (!isView(p, handle)) put(handle, p);
+    }
+
+    @Override
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < ids.length && ids[handle] != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(ids, null);
+        charCount = 0;
+        garbageChars = 0;
+        size = 0;
+        Arrays.fill(views, null);
+    }
+
+    @Override
+    public PersonStore copy() {
+        ColumnarPersonStore copy = new ColumnarPersonStore(1, 1);
+        copy.ids = Arrays.copyOf(ids, ids.length);
+        copy.birth = Arrays.copyOf(birth, birth.length);
+        copy.death = Arrays.copyOf(death, death.length);
+        copy.nameRevision = Arrays.copyOf(nameRevision, nameRevision.length);
+        copy.strings = Arrays.copyOf(strings, strings.length);
+        copy.chars = Arrays.copyOf(chars, charCount);
+        copy.charCount = charCount;
+        copy.garbageChars = garbageChars;
+        copy.size = size;
+        return copy;
+    }
+
+    /** Caracteres ocupados en el buffer de texto, incluidos los aún no compactados. */
+    public int getCharCount() {
+        return charCount;
+    }
+
+    private boolean isView(Person p, int handle) {
+        return p instanceof PersonView && ((PersonView) p).store == this && ((PersonView) p).handle == handle;
+    }
+
+    private void write(int handle, Person p) {
+        birth[handle] = epochDay(p.getBirthDate());
+        death[handle] = epochDay(p.getDeathDate());
+        setString(handle, FIRST_NAME, p.getFirstName());
+        setString(handle, LAST_NAME, p.getLastName());
+        setString(handle, QUOTE, p.getQuote());
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        birth = Arrays.copyOf(birth, capacity);
+        death = Arrays.copyOf(death, capacity);
+        nameRevision = Arrays.copyOf(nameRevision, capacity);
+        strings = Arrays.copyOf(strings, capacity * STRING_FIELDS * 2);
+    }
+
+    // ─── Texto ─────────────────────────────────────────────────────────────────
+
+    String getString(int handle, int field) {
+        int slot = (handle * STRING_FIELDS + field) * 2;
+        int length = strings[slot + 1];
+        return length == NO_STRING ? null : new String(chars, strings[slot], length);
+    }
+
+    /** El texto nuevo se añade al final; el anterior queda como hueco hasta la próxima compactación. */
+    void setString(int handle, int field, String value) {
+        int slot = (handle * STRING_FIELDS + field) * 2;
+        if (strings[slot + 1] != NO_STRING) garbageChars += strings[slot + 1];
+        strings[slot] = 0;
+        strings[slot + 1] = NO_STRING;
+        if (value == null) return;
+        int length = value.length();
+        if (charCount + length > chars.length) {
+            compactIfWorthIt();
+            if (charCount + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(charCount + length, chars.length * 2));
+            }
+        }
+        value.getChars(0, length, chars, charCount);
+        strings[slot] = charCount;
+        strings[slot + 1] = length;
+        charCount += length;
+    }
+
+    /** Si al menos la mitad del buffer son huecos, reescribe el texto vivo de forma contigua. */
+    private void compactIfWorthIt() {
+        if (garbageChars * 2 < charCount) return;
+        char[] compacted = new char[chars.length];
+        int pos = 0;
+        for (int h = 0; h < ids.length; h++) {
+            if (ids[h] == null) continue;
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                int slot = (h * STRING_FIELDS + f) * 2;
+                int length = strings[slot + 1];
+                if (length == NO_STRING) continue;
+                System.arraycopy(chars, strings[slot], compacted, pos, length);
+                strings[slot] = pos;
+                pos += length;
+            }
+        }
+        chars = compacted;
+        charCount = pos;
+        garbageChars = 0;
+    }
+
+    private static int epochDay(LocalDate d) {
+        return d == null ? NO_DATE : (int) d.toEpochDay();
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /** Person que no guarda datos propios: lee y escribe las columnas de su handle. */
+    private static final class PersonView extends Person {
+        final ColumnarPersonStore store;
+        final int handle;
+
+        PersonView(ColumnarPersonStore store, int handle) {
+            super(store.ids[handle], null, null, null, null, null);
+            this.store = store;
+            this.handle = handle;
+        }
+
+        @Override
+        public String getFirstName() {
+            return store.getString(handle, FIRST_NAME);
+        }
+
+        @Override
+        public String getLastName() {
+            return store.getString(handle, LAST_NAME);
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return date(store.birth[handle]);
+        }
+
+        @Override
+        public LocalDate getDeathDate() {
+            return date(store.death[handle]);
+        }
+
+        @Override
+        public String getQuote() {
+            return store.getString(handle, QUOTE);
+        }
+
+        @Override
+        public int getNameRevision() {
+            return store.nameRevision[handle];
+        }
+
+        @Override
+        public void setFirstName(String firstName) {
+            setName(FIRST_NAME, firstName);
+        }
+
+        @Override
+        public void setLastName(String lastName) {
+            setName(LAST_NAME, lastName);
+        }
+
+        private void setName(int field, String value) {
+            if (Objects.equals(store.getString(handle, field), value)) return;
+            store.setString(handle, field, value);
+            store.nameRevision[handle]++;
+        }
+
+        @Override
+        public void setBirthDate(LocalDate bd) {
+            store.birth[handle] = epochDay(bd);
+        }
+
+        @Override
+        public void setDeathDate(LocalDate dd) {
+            store.death[handle] = epochDay(dd);
+        }
+
+        @Override
+        public void setQuote(String quote) {
+            store.setString(handle, QUOTE, quote);
+        }
+    }
+}
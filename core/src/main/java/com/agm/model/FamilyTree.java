@@ -1,41 +1,277 @@
 package com.agm.model;
 
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
 import java.util.*;
-import java.util.stream.Stream;
 
-public class FamilyTree {
-    private final Map<String, Person> people = new HashMap<>();
-    private final List<Relation> relations = new ArrayList<>();
+/**
+ * Personas y relaciones del árbol. Internamente cada persona es un handle int de su {@link IdTable};
+ * relaciones e índices de adyacencia son arrays de ints. Los métodos con String son la puerta de
+ * entrada para cargar y guardar.
+ */
+public class FamilyTree implements ChildLookup {
+    private static final RelationType[] RELATION_TYPES = RelationType.values();
+    private static final IntArray NONE = new IntArray(0);
+
+    private final IdTable ids;
+    private final PersonStore people;
+
+    // Relaciones en columnas: origen, destino y tipo (ordinal) por posición
+    private final IntArray relationFrom = new IntArray();
+    private final IntArray relationTo = new IntArray();
+    private final IntArray relationType = new IntArray();
+
+    // Índices de adyacencia por handle
+    private final Array<IntArray> childrenOf = new Array<>();
+    private final Array<IntArray> parentsOf = new Array<>();
+    private final Array<IntArray> spousesOf = new Array<>();
+    private final Array<IntArray> siblingsOf = new Array<>();
+
+    private final List<TreeListener> listeners = new ArrayList<>();
+    private long modCount;
+    private long structureModCount;
+
+    public FamilyTree() {
+        this(new HeapPersonStore());
+    }
+
+    public FamilyTree(PersonStorage storage) {
+        this(storage.create());
+    }
+
+    /** @param people almacén de personas (en heap, en columnas, paginado desde disco…) */
+    public FamilyTree(PersonStore people) {
+        this(new IdTable(), people);
+    }
 
-    public void addPerson(Person p) {
-        people.put(p.getId(), p);
+    private FamilyTree(IdTable ids, PersonStore people) {
+        this.ids = ids;
+        this.people = people;
+    }
+
+    /** @return el handle de la persona */
+    public int addPerson(Person p) {
+        int handle = ids.intern(p.getId());
+        people.put(handle, p);
+        modCount++;
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).personAdded(p);
+        return handle;
+    }
+
+    /** Avisa de que se han cambiado los datos de una persona ya registrada (los setters de Person no lo hacen). */
+    public void personChanged(Person p) {
+        modCount++;
+        people.changed(ids.intern(p.getId()), p);
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).personChanged(p);
     }
 
     public void addRelation(String fromId, String toId, RelationType type) {
-        relations.add(new Relation(fromId, toId, type));
+        addRelation(ids.intern(fromId), ids.intern(toId), type);
+    }
+
+    public void addRelation(int from, int to, RelationType type) {
+        relationFrom.add(from);
+        relationTo.add(to);
+        relationType.add(type.ordinal());
+        index(from, to, type);
+        modCount++;
+        structureModCount++;
+        if (listeners.isEmpty()) return;
+        // Los listeners (diario) trabajan con ids: sólo se crea la Relation si alguien escucha
+        Relation r = new Relation(ids.idOf(from), ids.idOf(to), type);
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).relationAdded(r);
+    }
+
+    /** Contador de modificaciones: cambia con cada alta o edición; sirve para saber si hay algo sin guardar. */
+    public long getModCount() {
+        return modCount;
+    }
+
+    /** Como getModCount pero sólo cambia con las relaciones (o clear), no al editar datos de personas. */
+    public long getStructureModCount() {
+        return structureModCount;
+    }
+
+    public void addListener(TreeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TreeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Copia independiente de personas y relaciones (sin listeners) con los mismos handles, para guardarla desde otro hilo. */
+    public FamilyTree copy() {
+        FamilyTree copy = new FamilyTree(ids.copy(), people.copy());
+        for (int i = 0, n = relationFrom.size; i < n; i++) {
+            int from = relationFrom.get(i), to = relationTo.get(i);
+            RelationType type = RELATION_TYPES[relationType.get(i)];
+            copy.relationFrom.add(from);
+            copy.relationTo.add(to);
+            copy.relationType.add(type.ordinal());
+            copy.index(from, to, type);
+        }
+        return copy;
     }
+
     public void addParentChild(String parentId, String childId) {
         addRelation(parentId, childId, RelationType.PARENT);
     }
 
+    public void addParentChild(int parent, int child) {
+        addRelation(parent, child, RelationType.PARENT);
+    }
+
+    /** Vacía personas, relaciones e índices; los handles anteriores dejan de ser válidos. */
+    public void clear() {
+        modCount++;
+        structureModCount++;
+        people.clear();
+        ids.clear();
+        relationFrom.clear();
+        relationTo.clear();
+        relationType.clear();
+        childrenOf.clear();
+        parentsOf.clear();
+        spousesOf.clear();
+        siblingsOf.clear();
+    }
+
+    private void index(int from, int to, RelationType type) {
+        switch (type) {
+            case PARENT:
+                link(childrenOf, from, to);
+                link(parentsOf, to, from);
+                break;
+            case SPOUSE:
+                link(spousesOf, from, to);
+                link(spousesOf, to, from);
+                break;
+            case SIBLING:
+                link(siblingsOf, from, to);
+                link(siblingsOf, to, from);
+                break;
+        }
+    }
+
+    private static void link(Array<IntArray> index, int key, int value) {
+        while (index.size <= key) index.add(null);
+        IntArray list = index.get(key);
+        if (list == null) {
+            list = new IntArray(2);
+            index.set(key, list);
+        }
+        list.add(value);
+    }
+
+    private static IntArray lookup(Array<IntArray> index, int handle) {
+        IntArray list = handle >= 0 && handle < index.size ? index.get(handle) : null;
+        return list == null ? NONE : list;
+    }
+
+    // ─── Handles ───────────────────────────────────────────────────────────────
+
+    /** Handle del id, o {@link IdTable#NONE} si no aparece en el árbol. */
+    public int handleOf(String id) {
+        return ids.find(id);
+    }
+
+    /** Handle del id, registrándolo si es nuevo; permite cargar la estructura antes que los datos. */
+    public int intern(String id) {
+        return ids.intern(id);
+    }
+
+    public String idOf(int handle) {
+        return ids.idOf(handle);
+    }
+
+    /** Número de handles asignados (personas y extremos de relaciones); todos están en [0, count). */
+    public int getHandleCount() {
+        return ids.size();
+    }
+
+    // ─── Consultas de adyacencia ───────────────────────────────────────────────
+    // Devuelven el índice interno: de sólo lectura, y válido hasta la siguiente alta.
+
+    /** Hijos directos de la persona, en orden de inserción. */
+    @Override
+    public IntArray getChildren(int handle) {
+        return lookup(childrenOf, handle);
+    }
+
+    public IntArray getParents(int handle) {
+        return lookup(parentsOf, handle);
+    }
+
+    public IntArray getSpouses(int handle) {
+        return lookup(spousesOf, handle);
+    }
+
+    public IntArray getSiblings(int handle) {
+        return lookup(siblingsOf, handle);
+    }
+
+    /** True si ya existe una relación igual (las de cónyuge y hermano valen en cualquier sentido). */
+    public boolean hasRelation(int from, int to, RelationType type) {
+        switch (type) {
+            case PARENT: return getChildren(from).contains(to);
+            case SPOUSE: return getSpouses(from).contains(to);
+            default: return getSiblings(from).contains(to);
+        }
+    }
+
+    public boolean hasRelation(String fromId, String toId, RelationType type) {
+        int from = ids.find(fromId), to = ids.find(toId);
+        return from != IdTable.NONE && to != IdTable.NONE && hasRelation(from, to, type);
+    }
+
+    /** Copia inmutable de la estructura padre→hijos, apta para calcular el layout en otro hilo. */
+    public StructureSnapshot snapshotStructure() {
+        return new StructureSnapshot(childrenOf);
+    }
+
+    // ─── Personas ──────────────────────────────────────────────────────────────
 
     public Optional<Person> getPerson(String id) {
-        return Optional.ofNullable(people.get(id));
+        return Optional.ofNullable(getPersonOrNull(id));
+    }
+
+    /** Como getPerson pero sin Optional. */
+    public Person getPersonOrNull(String id) {
+        int handle = ids.find(id);
+        return handle == IdTable.NONE ? null : people.get(handle);
     }
 
-    // Sigue devolviendo la vista inmutable
-    public List<Relation> getRelations() {
-        return Collections.unmodifiableList(relations);
+    /** Persona del handle, o null si el handle sólo aparece en relaciones; para los recorridos por frame. */
+    public Person getPersonByHandle(int handle) {
+        return people.get(handle);
     }
 
-    // Nuevo método para modificar la lista interna
-    public List<Relation> getRelationsMutable() {
-        return relations;
+    /** False si el handle sólo aparece como extremo de alguna relación. */
+    public boolean hasPerson(int handle) {
+        return people.contains(handle);
     }
 
-    // Nuevo método para modificar el mapa interno
-    public Map<String, Person> getPeople() {
-        return people;
+    public int getPersonCount() {
+        return people.size();
     }
 
+    // ─── Relaciones ────────────────────────────────────────────────────────────
+
+    public int getRelationCount() {
+        return relationFrom.size;
+    }
+
+    public int getRelationFrom(int index) {
+        return relationFrom.get(index);
+    }
+
+    public int getRelationTo(int index) {
+        return relationTo.get(index);
+    }
+
+    public RelationType getRelationType(int index) {
+        return RELATION_TYPES[relationType.get(index)];
+    }
 }
@@ -0,0 +1,53 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.Array;
+
+/** Todas las personas como objetos en un array indexado por handle; el almacén por defecto. */
+public class HeapPersonStore implements PersonStore {
+    private final Array<Person> people = new Array<>();
+    private int size;
+
+    @Override
+    public Person get(int handle) {
+        return handle < people.size ? people.get(handle) : null;
+    }
+
+    @Override
+    public void put(int handle, Person p) {
+        while (people.size <= handle) people.add(null);
+        if (people.get(handle) == null) size++;
+        people.set(handle, p);
+    }
+
+    @Override
+    public void changed(int handle, Person p) {
+    }
+
+    @Override
+    public boolean contains(int handle) {
+        return get(handle) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        people.clear();
+        size = 0;
+    }
+
+    @Override
+    public PersonStore copy() {
+        HeapPersonStore copy = new HeapPersonStore();
+        for (int h = 0; h < people.size; h++) {
+            Person p = people.get(h);
+            if (p == null) continue;
+            copy.put(h, new Person(p.getId(), p.getFirstName(), p.getLastName(),
+                p.getBirthDate(), p.getDeathDate(), p.getQuote()));
+        }
+        return copy;
+    }
+}
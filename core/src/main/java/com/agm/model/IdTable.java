@@ -0,0 +1,63 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Traduce los UUID de persona a handles int densos (0, 1, 2… por orden de alta) y viceversa.
+ * Dentro del modelo todo se indexa por handle; el String sólo se usa para guardar y cargar.
+ * Los handles no se reutilizan ni cambian mientras la tabla viva.
+ */
+public final class IdTable {
+    /** Valor devuelto por {@link #find} para un id desconocido. */
+    public static final int NONE = -1;
+
+    private final ObjectIntMap<String> handles;
+    private final Array<String> ids;
+
+    public IdTable() {
+        this(64);
+    }
+
+    private IdTable(int capacity) {
+        handles = new ObjectIntMap<>(capacity);
+        ids = new Array<>(true, capacity);
+    }
+
+    /** Handle del id, asignándole uno nuevo si aún no lo tenía. */
+    public int intern(String id) {
+        int handle = handles.get(id, NONE);
+        if (handle == NONE) {
+            handle = ids.size;
+            handles.put(id, handle);
+            ids.add(id);
+        }
+        return handle;
+    }
+
+    /** Handle del id, o {@link #NONE} si nunca se ha registrado. */
+    public int find(String id) {
+        return id == null ? NONE : handles.get(id, NONE);
+    }
+
+    public String idOf(int handle) {
+        return ids.get(handle);
+    }
+
+    /** Número de handles asignados; todos están en [0, size). */
+    public int size() {
+        return ids.size;
+    }
+
+    public void clear() {
+        handles.clear();
+        ids.clear();
+    }
+
+    /** Copia con los mismos handles, para que una copia del árbol siga siendo compatible. */
+    public IdTable copy() {
+        IdTable copy = new IdTable(Math.max(ids.size, 16));
+        for (int i = 0; i < ids.size; i++) copy.intern(ids.get(i));
+        return copy;
+    }
+}
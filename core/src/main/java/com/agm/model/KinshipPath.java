@@ -0,0 +1,47 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Cadena más corta de parentescos entre dos personas: handles desde el origen hasta el destino y
+ * el paso que lleva de cada uno al siguiente. Contando subidas y bajadas se deduce el parentesco
+ * (dos subidas y dos bajadas: primos hermanos).
+ */
+public final class KinshipPath {
+    private final IntArray handles;
+    private final RelationStep[] steps;
+
+    KinshipPath(IntArray handles, RelationStep[] steps) {
+        this.handles = handles;
+        this.steps = steps;
+    }
+
+    /** Número de pasos; 0 si origen y destino son la misma persona. */
+    public int getLength() {
+        return steps.length;
+    }
+
+    /** Persona {@code index} de la cadena: 0 es el origen y getLength() el destino. */
+    public int getHandle(int index) {
+        return handles.get(index);
+    }
+
+    /** Paso de la persona {@code index} a la siguiente. */
+    public RelationStep getStep(int index) {
+        return steps[index];
+    }
+
+    /** Cuántos pasos de un tipo hay: PARENT son generaciones hacia arriba y CHILD hacia abajo. */
+    public int count(RelationStep step) {
+        int n = 0;
+        for (RelationStep s : steps) if (s == step) n++;
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(handles.get(0));
+        for (int i = 0; i < steps.length; i++) sb.append(" -").append(steps[i]).append("-> ").append(handles.get(i + 1));
+        return sb.toString();
+    }
+}
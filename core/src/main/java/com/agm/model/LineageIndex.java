@@ -0,0 +1,117 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Ancestro común más cercano por la línea principal (el primer progenitor registrado de cada
+ * persona) con saltos binarios: para cada persona se guarda su ancestro 2^k generaciones más
+ * arriba, así que cada consulta cuesta O(log generaciones). Sólo es el ancestro común de verdad
+ * cuando las dos personas tienen una única línea hasta arriba ({@link #isSingleLine(int)}); para el
+ * resto {@link RelationQueries} hace la búsqueda completa. Es una foto de la estructura; se rehace si
+ * el árbol cambia (lo gestiona {@link RelationQueries}).
+ */
+final class LineageIndex {
+    private final int[] generation;   // generaciones hasta la raíz de su línea
+    private final int[][] up;         // up[k][h]: ancestro 2^k generaciones por encima, o NONE
+    private final boolean[] singleLine;   // ni ella ni ninguno de sus ancestros tiene dos progenitores
+
+    LineageIndex(FamilyTree tree) {
+        int n = tree.getHandleCount();
+        int[] parent = new int[n];
+        for (int h = 0; h < n; h++) {
+            IntArray parents = tree.getParents(h);
+            parent[h] = parents.size > 0 ? parents.get(0) : IdTable.NONE;
+        }
+
+        // Generaciones en anchura desde las raíces; lo que no se alcanza está en un ciclo y se corta ahí
+        generation = new int[n];
+        Arrays.fill(generation, -1);
+        int[] order = new int[n];
+        int count = 0, read = 0, maxGeneration = 0;
+        for (int h = 0; h < n; h++) {
+            if (parent[h] != IdTable.NONE) continue;
+            generation[h] = 0;
+            order[count++] = h;
+        }
+        for (int h = 0; ; h++) {
+            while (read < count) {
+                int p = order[read++];
+                IntArray children = tree.getChildren(p);
+                for (int i = 0; i < children.size; i++) {
+                    int c = children.get(i);
+                    if (parent[c] != p || generation[c] >= 0) continue;
+                    generation[c] = generation[p] + 1;
+                    maxGeneration = Math.max(maxGeneration, generation[c]);
+                    order[count++] = c;
+                }
+            }
+            while (h < n && generation[h] >= 0) h++;
+            if (h == n) break;
+            parent[h] = IdTable.NONE;
+            generation[h] = 0;
+            order[count++] = h;
+        }
+
+        // En orden de generaciones, así cada progenitor está resuelto antes que sus hijos
+        singleLine = new boolean[n];
+        for (int i = 0; i < count; i++) {
+            int h = order[i], parents = tree.getParents(h).size;
+            // Un progenitor cortado por un ciclo cuenta como línea múltiple
+            singleLine[h] = parents == 0 || (parents == 1 && parent[h] != IdTable.NONE && singleLine[parent[h]]);
+        }
+
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxGeneration));
+        up = new int[levels][];
+        up[0] = parent;
+        for (int k = 1; k < levels; k++) {
+            int[] half = up[k - 1], level = new int[n];
+            for (int h = 0; h < n; h++) level[h] = half[h] == IdTable.NONE ? IdTable.NONE : half[half[h]];
+            up[k] = level;
+        }
+    }
+
+    int getHandleCount() {
+        return generation.length;
+    }
+
+    int getGeneration(int handle) {
+        return generation[handle];
+    }
+
+    /** Si los ancestros de la persona son exactamente su línea principal. */
+    boolean isSingleLine(int handle) {
+        return singleLine[handle];
+    }
+
+    /** Ancestro {@code generations} por encima en la línea principal, o NONE si la línea no llega. */
+    int ancestor(int handle, int generations) {
+        if (generations > generation[handle]) return IdTable.NONE;
+        for (int k = 0; generations > 0 && handle != IdTable.NONE; k++, generations >>= 1) {
+            if ((generations & 1) != 0) handle = up[k][handle];
+        }
+        return handle;
+    }
+
+    /**
+     * Ancestro común más cercano de a y b por sus líneas principales (puede ser uno de ellos), o NONE
+     * si no se unen. Con dos progenitores en alguna de las líneas no tiene por qué ser el de verdad.
+     */
+    int lowestCommonAncestor(int a, int b) {
+        if (generation[a] < generation[b]) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        a = ancestor(a, generation[a] - generation[b]);
+        if (a == b) return a;
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (up[k][a] != up[k][b]) {
+                a = up[k][a];
+                b = up[k][b];
+            }
+        }
+        return up[0][a];
+    }
+}
@@ -1,6 +1,7 @@
 package com.agm.model;
 
 import java.time.LocalDate;
+import java.util.Objects;
 
 public class Person {
     private final String id;
@@ -9,6 +10,7 @@ public class Person {
     private LocalDate birthDate;
     private LocalDate deathDate;    // nuevo
     private String quote;           // nuevo
+    private transient int nameRevision;   // sube con cada cambio de nombre; no se persiste
 
     public Person(String id, String firstName, String lastName, LocalDate birthDate, LocalDate deathDate, String quote) {
         this.id = id;
@@ -44,12 +46,19 @@ public class Person {
         return quote;
     }
 
+    /** Contador que cambia cada vez que se modifica el nombre o el apellido. */
+    public int getNameRevision() {
+        return nameRevision;
+    }
+
     // setters
     public void setFirstName(String firstName) {
+        if (!Objects.equals(this.firstName, firstName)) nameRevision++;
         this.firstName = firstName;
     }
 
     public void setLastName(String lastName) {
+        if (!Objects.equals(this.lastName, lastName)) nameRevision++;
         this.lastName = lastName;
     }
 
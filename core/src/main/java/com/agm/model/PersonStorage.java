@@ -0,0 +1,13 @@
+package com.agm.model;
+
+/** Cómo guarda un FamilyTree sus personas en memoria. */
+public enum PersonStorage {
+    /** Un objeto Person por persona; lo más sencillo para árboles pequeños. */
+    HEAP,
+    /** Columnas de primitivos y un buffer de texto compartido; para árboles de millones de personas. */
+    COLUMNAR;
+
+    public PersonStore create() {
+        return this == COLUMNAR ? new ColumnarPersonStore() : new HeapPersonStore();
+    }
+}
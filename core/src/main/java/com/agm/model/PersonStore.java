@@ -0,0 +1,24 @@
+package com.agm.model;
+
+/**
+ * Almacén de personas de un FamilyTree, indexado por el handle que asigna su {@link IdTable}.
+ * Permite elegir entre objetos en el heap y almacenes que sólo retienen una parte en memoria.
+ */
+public interface PersonStore {
+    /** La persona con ese handle, o null si no existe. Puede cargarla bajo demanda. */
+    Person get(int handle);
+
+    void put(int handle, Person p);
+
+    /** Se han modificado los datos de {@code p}; un almacén paginado debe retenerla desde ahora. */
+    void changed(int handle, Person p);
+
+    boolean contains(int handle);
+
+    int size();
+
+    void clear();
+
+    /** Copia independiente, segura para leerse desde otro hilo mientras esta sigue cambiando. */
+    PersonStore copy();
+}
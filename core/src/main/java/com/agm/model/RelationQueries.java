@@ -0,0 +1,237 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+import java.util.BitSet;
+
+/**
+ * Consultas de parentesco sobre un FamilyTree: descendientes, ancestros y recorridos en general
+ * (perezosos, ver {@link Traversal}), ancestros comunes y cadena de parentesco entre dos personas.
+ * Todo trabaja con handles. El índice de ancestros por la línea principal (el primer progenitor
+ * registrado) se prepara en la primera consulta que lo necesita y se rehace sólo si cambian las
+ * relaciones. Hilo del árbol.
+ */
+public class RelationQueries {
+    private static final RelationStep[] ALL_STEPS = RelationStep.values();
+
+    private final FamilyTree tree;
+    private LineageIndex lineage;
+    private long lineageModCount;
+
+    public RelationQueries(FamilyTree tree) {
+        this.tree = tree;
+    }
+
+    // ─── Recorridos ────────────────────────────────────────────────────────────
+
+    /** Todos los descendientes, por generaciones (hijos, nietos…). */
+    public Traversal descendants(int handle) {
+        return breadthFirst(handle, Integer.MAX_VALUE, RelationStep.CHILD);
+    }
+
+    /** Todos los ancestros, por generaciones (progenitores, abuelos…). */
+    public Traversal ancestors(int handle) {
+        return breadthFirst(handle, Integer.MAX_VALUE, RelationStep.PARENT);
+    }
+
+    /** Recorrido en anchura hasta {@code maxDepth} pasos; sin pasos indicados, por todos. */
+    public Traversal breadthFirst(int start, int maxDepth, RelationStep... steps) {
+        return new Traversal(tree, start, true, maxDepth, null, steps.length == 0 ? ALL_STEPS : steps);
+    }
+
+    /** Recorrido en profundidad (preorden) hasta {@code maxDepth} pasos; sin pasos indicados, por todos. */
+    public Traversal depthFirst(int start, int maxDepth, RelationStep... steps) {
+        return new Traversal(tree, start, false, maxDepth, null, steps.length == 0 ? ALL_STEPS : steps);
+    }
+
+    // ─── Ancestros comunes ─────────────────────────────────────────────────────
+
+    /**
+     * Ancestros de a que también lo son de b, de los más cercanos a b a los más lejanos; los
+     * primeros son los ancestros comunes más próximos. Se marcan en un bit por handle los de a y
+     * se recorren los de b sin guardarlos.
+     */
+    public Traversal commonAncestors(int a, int b) {
+        BitSet ofA = new BitSet();
+        for (Traversal it = ancestors(a); it.hasNext(); ) ofA.set(it.nextInt());
+        return commonAncestors(ofA, b);
+    }
+
+    private Traversal commonAncestors(BitSet ofA, int b) {
+        return new Traversal(tree, b, true, Integer.MAX_VALUE, ofA, RelationStep.PARENT);
+    }
+
+    /**
+     * Ancestro común más cercano de a y b, contando a cada uno como ancestro de sí mismo (si a
+     * desciende de b, es b): uno de los comunes del que no desciende ningún otro común. Si hay
+     * varios igual de cercanos (los dos progenitores de unos hermanos), el más próximo a b. NONE si
+     * no tienen ninguno. Cuando los dos tienen una sola línea de ancestros se responde con el índice
+     * de la línea principal en O(log generaciones); si no, se recorren los ancestros de ambos.
+     */
+    public int lowestCommonAncestor(int a, int b) {
+        if (a < 0 || b < 0 || a >= tree.getHandleCount() || b >= tree.getHandleCount()) return IdTable.NONE;
+        LineageIndex index = lineage();
+        if (index.isSingleLine(a) && index.isSingleLine(b)) return index.lowestCommonAncestor(a, b);
+
+        BitSet ofA = new BitSet();
+        ofA.set(a);
+        for (Traversal it = ancestors(a); it.hasNext(); ) ofA.set(it.nextInt());
+        if (ofA.get(b)) return b;
+        BitSet common = new BitSet();
+        int nearest = IdTable.NONE;
+        for (Traversal it = commonAncestors(ofA, b); it.hasNext(); ) {
+            int h = it.nextInt();
+            if (nearest == IdTable.NONE) nearest = h;
+            common.set(h);
+        }
+        if (nearest == IdTable.NONE) return IdTable.NONE;
+
+        // El más próximo a b puede ser ancestro de otro común por una rama más larga: se baja por
+        // hijos comunes hasta uno sin ninguno. Cada uno se quita al pasar, así un ciclo no atasca.
+        for (int h = nearest; ; ) {
+            common.clear(h);
+            int lower = IdTable.NONE;
+            IntArray children = tree.getChildren(h);
+            for (int i = 0; i < children.size && lower == IdTable.NONE; i++) {
+                if (common.get(children.get(i))) lower = children.get(i);
+            }
+            if (lower == IdTable.NONE) return h;
+            h = lower;
+        }
+    }
+
+    /** Generaciones por la línea principal hasta su persona más antigua. */
+    public int getGeneration(int handle) {
+        LineageIndex index = lineage();
+        return inRange(index, handle) ? index.getGeneration(handle) : 0;
+    }
+
+    /** Ancestro {@code generations} por encima en la línea principal, o NONE. */
+    public int lineageAncestor(int handle, int generations) {
+        LineageIndex index = lineage();
+        return inRange(index, handle) ? index.ancestor(handle, generations) : IdTable.NONE;
+    }
+
+    private static boolean inRange(LineageIndex index, int handle) {
+        return handle >= 0 && handle < index.getHandleCount();
+    }
+
+    private LineageIndex lineage() {
+        if (lineage == null || lineageModCount != tree.getStructureModCount()
+            || lineage.getHandleCount() != tree.getHandleCount()) {
+            lineage = new LineageIndex(tree);
+            lineageModCount = tree.getStructureModCount();
+        }
+        return lineage;
+    }
+
+    // ─── Cadena de parentesco ──────────────────────────────────────────────────
+
+    /** Como {@link #kinship(int, int, RelationStep...)} por progenitores, hijos, cónyuges y hermanos. */
+    public KinshipPath kinship(int from, int to) {
+        return kinship(from, to, ALL_STEPS);
+    }
+
+    /**
+     * Cadena más corta de pasos entre dos personas, o null si no están emparentadas. Búsqueda en
+     * anchura desde los dos extremos a la vez, ampliando siempre la frontera menor: en un árbol
+     * grande se visita una fracción de lo que visitaría una búsqueda desde un solo lado.
+     */
+    public KinshipPath kinship(int from, int to, RelationStep... steps) {
+        if (from < 0 || to < 0) return null;
+        if (from == to) return new KinshipPath(IntArray.with(from), new RelationStep[0]);
+
+        Search forward = new Search(from), backward = new Search(to);
+        while (forward.frontier.size > 0 && backward.frontier.size > 0) {
+            boolean fromForward = forward.frontier.size <= backward.frontier.size;
+            Search side = fromForward ? forward : backward;
+            Search other = fromForward ? backward : forward;
+            int meeting = side.expand(tree, steps, !fromForward, other);
+            if (meeting != IdTable.NONE) return path(forward, backward, meeting);
+        }
+        return null;
+    }
+
+    private static KinshipPath path(Search forward, Search backward, int meeting) {
+        int length = forward.distance(meeting) + backward.distance(meeting);
+        IntArray handles = new IntArray(length + 1);
+        RelationStep[] steps = new RelationStep[length];
+
+        // Del encuentro hacia el origen, al revés; después hacia el destino en orden
+        int i = forward.distance(meeting);
+        for (int h = meeting; i > 0; h = forward.previous.get(h, IdTable.NONE)) steps[--i] = forward.step(h);
+        for (int h = meeting; h != IdTable.NONE; h = forward.previous.get(h, IdTable.NONE)) handles.add(h);
+        handles.reverse();
+        i = forward.distance(meeting);
+        for (int h = meeting; h != backward.origin; ) {
+            steps[i++] = backward.step(h);
+            h = backward.previous.get(h, IdTable.NONE);
+            handles.add(h);
+        }
+        return new KinshipPath(handles, steps);
+    }
+
+    /**
+     * Un lado de la búsqueda: de cada persona alcanzada, desde cuál se llegó y con qué paso (en el
+     * sentido origen → destino de la cadena final) y a qué distancia. Sólo guarda lo visitado.
+     */
+    private static final class Search {
+        final int origin;
+        final IntIntMap previous = new IntIntMap();
+        final IntIntMap stepAndDistance = new IntIntMap();   // distancia * 4 + ordinal del paso
+        IntArray frontier = new IntArray();
+        IntArray nextFrontier = new IntArray();
+        int depth;
+
+        Search(int origin) {
+            this.origin = origin;
+            previous.put(origin, IdTable.NONE);
+            stepAndDistance.put(origin, 0);
+            frontier.add(origin);
+        }
+
+        boolean contains(int h) {
+            return previous.containsKey(h);
+        }
+
+        int distance(int h) {
+            return stepAndDistance.get(h, 0) >> 2;
+        }
+
+        RelationStep step(int h) {
+            return ALL_STEPS[stepAndDistance.get(h, 0) & 3];
+        }
+
+        /**
+         * Amplía un nivel completo. El lado del destino recorre los pasos al revés. Devuelve la
+         * persona de encuentro con el otro lado que da la cadena más corta, o NONE.
+         */
+        int expand(FamilyTree tree, RelationStep[] steps, boolean reversed, Search other) {
+            depth++;
+            int meeting = IdTable.NONE, best = Integer.MAX_VALUE;
+            for (int f = 0; f < frontier.size; f++) {
+                int h = frontier.get(f);
+                for (RelationStep step : steps) {
+                    IntArray neighbours = (reversed ? step.inverse() : step).from(tree, h);
+                    for (int i = 0, n = neighbours.size; i < n; i++) {
+                        int v = neighbours.get(i);
+                        if (contains(v)) continue;
+                        previous.put(v, h);
+                        stepAndDistance.put(v, depth << 2 | step.ordinal());
+                        nextFrontier.add(v);
+                        if (other.contains(v) && depth + other.distance(v) < best) {
+                            best = depth + other.distance(v);
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+            IntArray swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+            nextFrontier.clear();
+            return meeting;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/** Un paso de parentesco entre dos personas, en el sentido en que se recorre. */
+public enum RelationStep {
+    PARENT,   // a uno de sus progenitores
+    CHILD,    // a uno de sus hijos
+    SPOUSE,   // a su cónyuge
+    SIBLING;  // a un hermano registrado como tal
+
+    /** Personas a las que se llega con este paso desde {@code handle}; es el índice interno del árbol. */
+    public IntArray from(FamilyTree tree, int handle) {
+        switch (this) {
+            case PARENT: return tree.getParents(handle);
+            case CHILD: return tree.getChildren(handle);
+            case SPOUSE: return tree.getSpouses(handle);
+            default: return tree.getSiblings(handle);
+        }
+    }
+
+    /** El paso que deshace este: de hijo a progenitor y al revés; cónyuge y hermano son simétricos. */
+    public RelationStep inverse() {
+        switch (this) {
+            case PARENT: return CHILD;
+            case CHILD: return PARENT;
+            default: return this;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Copia inmutable de la estructura padre→hijos de un FamilyTree en un instante dado.
+ * Se puede leer desde otro hilo mientras el árbol original sigue editándose.
+ */
+public final class StructureSnapshot implements ChildLookup {
+    private static final IntArray NONE = new IntArray(0);
+
+    private final IntArray[] childrenOf;
+
+    StructureSnapshot(Array<IntArray> source) {
+        childrenOf = new IntArray[source.size];
+        for (int h = 0; h < source.size; h++) {
+            IntArray children = source.get(h);
+            if (children == null) continue;
+            IntArray copy = new IntArray(children.size);
+            copy.addAll(children);
+            childrenOf[h] = copy;
+        }
+    }
+
+    @Override
+    public IntArray getChildren(int handle) {
+        IntArray children = handle < childrenOf.length ? childrenOf[handle] : null;
+        return children == null ? NONE : children;
+    }
+}
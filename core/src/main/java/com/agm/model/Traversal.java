@@ -0,0 +1,141 @@
+package com.agm.model;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorrido perezoso, en anchura o en profundidad, desde una persona siguiendo los pasos de
+ * parentesco indicados sobre los índices de adyacencia del árbol. Cada persona sale una sola vez
+ * y la de partida no sale. Sólo se expande lo necesario para el siguiente resultado: los visitados
+ * ocupan un bit por handle y la frontera, las personas aún por expandir.
+ *
+ * <p>Lo crea {@link RelationQueries}. Si cambian las relaciones del árbol mientras se recorre,
+ * falla con ConcurrentModificationException.
+ */
+public final class Traversal implements PrimitiveIterator.OfInt {
+    // En anchura la cola se compacta cuando lo ya consumido pasa de esto y de la mitad
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    private final FamilyTree tree;
+    private final RelationStep[] steps;
+    private final boolean breadthFirst;
+    private final int maxDepth;
+    private final BitSet accepted;   // null: salen todas
+    private final long structureModCount;
+    private final BitSet visited = new BitSet();
+
+    // Frontera: handle y distancia en paralelo; cola desde head en anchura, pila en profundidad
+    private final IntArray pending = new IntArray();
+    private final IntArray pendingDepth = new IntArray();
+    private int head;
+
+    private int next = IdTable.NONE, nextDepth;
+    private int depth;
+
+    Traversal(FamilyTree tree, int start, boolean breadthFirst, int maxDepth, BitSet accepted, RelationStep... steps) {
+        this.tree = tree;
+        this.steps = steps.clone();
+        this.breadthFirst = breadthFirst;
+        this.maxDepth = maxDepth;
+        this.accepted = accepted;
+        this.structureModCount = tree.getStructureModCount();
+        if (start >= 0) {
+            visited.set(start);
+            expand(start, 0);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == IdTable.NONE) advance();
+        return next != IdTable.NONE;
+    }
+
+    /** Handle de la siguiente persona alcanzada. */
+    @Override
+    public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int h = next;
+        depth = nextDepth;
+        next = IdTable.NONE;
+        return h;
+    }
+
+    /**
+     * Pasos desde la de partida hasta la última persona devuelta: en anchura, la distancia mínima
+     * (las generaciones, si sólo se sube o se baja); en profundidad, la del camino que la encontró.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** El resto del recorrido como IntStream, igual de perezoso. */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private void advance() {
+        if (tree.getStructureModCount() != structureModCount) throw new ConcurrentModificationException();
+        while (head < pending.size) {
+            int h, d;
+            if (breadthFirst) {
+                h = pending.get(head);
+                d = pendingDepth.get(head);
+                head++;
+                compact();
+            } else {
+                h = pending.pop();
+                d = pendingDepth.pop();
+            }
+            expand(h, d);
+            if (accepted == null || accepted.get(h)) {
+                next = h;
+                nextDepth = d;
+                return;
+            }
+        }
+    }
+
+    /** Añade a la frontera los vecinos aún no vistos; en profundidad, al revés para sacarlos en orden. */
+    private void expand(int h, int d) {
+        if (d >= maxDepth) return;
+        int stackTop = pending.size;
+        for (RelationStep step : steps) {
+            IntArray neighbours = step.from(tree, h);
+            for (int i = 0, n = neighbours.size; i < n; i++) {
+                int v = neighbours.get(i);
+                if (visited.get(v)) continue;
+                visited.set(v);
+                pending.add(v);
+                pendingDepth.add(d + 1);
+            }
+        }
+        // Todos los añadidos tienen la misma distancia: basta con invertir los handles
+        if (!breadthFirst) reverseFrom(pending, stackTop);
+    }
+
+    private void compact() {
+        if (head < COMPACT_THRESHOLD || head * 2 < pending.size) return;
+        pending.removeRange(0, head - 1);
+        pendingDepth.removeRange(0, head - 1);
+        head = 0;
+    }
+
+    private static void reverseFrom(IntArray array, int from) {
+        int[] items = array.items;
+        for (int i = from, j = array.size - 1; i < j; i++, j--) {
+            int tmp = items[i];
+            items[i] = items[j];
+            items[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.agm.model;
+
+/** Avisos de cambios en un FamilyTree; se invocan en el hilo que hace el cambio. */
+public interface TreeListener {
+    void personAdded(Person p);
+
+    /** La persona ya existía y se han modificado sus datos. */
+    void personChanged(Person p);
+
+    void relationAdded(Relation r);
+}
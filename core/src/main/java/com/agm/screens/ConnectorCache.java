@@ -0,0 +1,154 @@
+package com.agm.screens;
+
+import com.agm.model.FamilyTree;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Arrays;
+
+/**
+ * Geometría de las líneas padre→hijos empaquetada en un float[] (x1, y1, x2, y2 por segmento).
+ * Se reconstruye sólo tras un layout o una edición; en cada frame únicamente se reproduce.
+ *
+ * <p>Cada segmento se apunta en las celdas de una rejilla uniforme que atraviesa (son horizontales
+ * o verticales, así que suelen ser pocas), y al dibujar sólo se miran las celdas de la vista: pintar
+ * una tesela cuesta lo que hay en ella, no todas las conexiones del árbol.
+ */
+public class ConnectorCache {
+    private static final int FLOATS_PER_SEGMENT = 4;
+
+    private final float nameOffset;
+    private final float cellSize;
+    private float[] segments = new float[64 * FLOATS_PER_SEGMENT];
+    private int floatCount = 0;
+    private boolean dirty = true;
+
+    // Índices de segmento por celda; un segmento largo está en varias y se marca al dibujarlo
+    private final LongMap<IntArray> cells = new LongMap<>();
+    private final Array<IntArray> freeCells = new Array<>();
+    private int[] drawnStamp = new int[64];
+    private int stamp;
+
+    /**
+     * @param nameOffset distancia sobre el nodo hijo donde termina la línea, para no tapar el nombre
+     * @param cellSize   lado de la celda de la rejilla de segmentos, en mundo
+     */
+    public ConnectorCache(float nameOffset, float cellSize) {
+        this.nameOffset = nameOffset;
+        this.cellSize = cellSize;
+    }
+
+    /** Marca la geometría como obsoleta; se recalcula en el siguiente rebuildIfDirty. */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public void rebuildIfDirty(FamilyTree tree, NodeRegistry nodes) {
+        if (!dirty) return;
+        dirty = false;
+        floatCount = 0;
+        for (LongMap.Entry<IntArray> e : cells.entries()) {
+            e.value.clear();
+            freeCells.add(e.value);
+        }
+        cells.clear();
+
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            NodeView parent = nodes.get(i);
+            IntArray children = tree.getChildren(parent.getHandle());
+
+            // Primer y último hijo con vista: delimitan la barra horizontal
+            NodeView first = null, last = null;
+            for (int c = 0, cn = children.size; c < cn; c++) {
+                NodeView child = nodes.getByHandle(children.get(c));
+                if (child == null) continue;
+                if (first == null) first = child;
+                last = child;
+            }
+            if (first == null) continue;
+
+            float px = parent.getX();
+            float py = parent.getY();
+            float connectorY = py - NodeView.RADIUS - 20;
+
+            addSegment(px, py - NodeView.RADIUS, px, connectorY);
+            addSegment(first.getX(), connectorY, last.getX(), connectorY);
+
+            for (int c = 0, cn = children.size; c < cn; c++) {
+                NodeView child = nodes.getByHandle(children.get(c));
+                if (child == null) continue;
+                float stopY = child.getY() + NodeView.RADIUS + nameOffset;
+                addSegment(child.getX(), connectorY, child.getX(), stopY);
+            }
+        }
+    }
+
+    private void addSegment(float x1, float y1, float x2, float y2) {
+        if (floatCount + FLOATS_PER_SEGMENT > segments.length) {
+            float[] grown = new float[segments.length * 2];
+            System.arraycopy(segments, 0, grown, 0, floatCount);
+            segments = grown;
+        }
+        segments[floatCount++] = x1;
+        segments[floatCount++] = y1;
+        segments[floatCount++] = x2;
+        segments[floatCount++] = y2;
+        index(getSegmentCount() - 1, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    private void index(int segment, float x0, float y0, float x1, float y1) {
+        for (int cx = cell(x0), cx1 = cell(x1); cx <= cx1; cx++) {
+            for (int cy = cell(y0), cy1 = cell(y1); cy <= cy1; cy++) {
+                long key = SpatialGrid.key(cx, cy);
+                IntArray bucket = cells.get(key);
+                if (bucket == null) {
+                    bucket = freeCells.size > 0 ? freeCells.pop() : new IntArray(8);
+                    cells.put(key, bucket);
+                }
+                bucket.add(segment);
+            }
+        }
+    }
+
+    /** Reproduce los segmentos que tocan la vista; el ShapeRenderer debe estar en modo Line. */
+    public void draw(ShapeRenderer sr, ViewportCuller culler) {
+        sr.setColor(Color.WHITE);
+        int count = getSegmentCount();
+        if (drawnStamp.length < count) drawnStamp = new int[Math.max(count, drawnStamp.length * 2)];
+        if (++stamp == 0) {
+            // Tras dar la vuelta el contador, una marca vieja podría coincidir con la nueva
+            Arrays.fill(drawnStamp, 0);
+            stamp = 1;
+        }
+        float[] s = segments;
+        int drawn = 0;
+        for (int cx = cell(culler.getMinX()), cx1 = cell(culler.getMaxX()); cx <= cx1; cx++) {
+            for (int cy = cell(culler.getMinY()), cy1 = cell(culler.getMaxY()); cy <= cy1; cy++) {
+                IntArray bucket = cells.get(SpatialGrid.key(cx, cy));
+                if (bucket == null) continue;
+                for (int b = 0; b < bucket.size; b++) {
+                    int segment = bucket.get(b);
+                    if (drawnStamp[segment] == stamp) continue;
+                    drawnStamp[segment] = stamp;
+                    int i = segment * FLOATS_PER_SEGMENT;
+                    float x1 = s[i], y1 = s[i + 1], x2 = s[i + 2], y2 = s[i + 3];
+                    if (!culler.overlaps(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2))) continue;
+                    sr.line(x1, y1, x2, y2);
+                    drawn++;
+                }
+            }
+        }
+        culler.recordEdges(drawn, count - drawn);
+    }
+
+    public int getSegmentCount() {
+        return floatCount / FLOATS_PER_SEGMENT;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+}
@@ -1,10 +1,23 @@
 package com.agm.screens;
 
 import com.agm.MainGame;
+import com.agm.io.AutosaveScheduler;
+import com.agm.io.BinaryTreeFile;
+import com.agm.io.BinaryTreeWriter;
+import com.agm.io.EditJournal;
+import com.agm.io.PagedPersonStore;
+import com.agm.io.SnapshotGenerations;
+import com.agm.io.TreeJsonReader;
+import com.agm.io.TreeJsonWriter;
+import com.agm.io.TreeSerializer;
+import com.agm.layout.LayoutWorker;
+import com.agm.layout.TreeLayout;
+import com.agm.metrics.MetricsRegistry;
 import com.agm.model.FamilyTree;
 import com.agm.model.Person;
 import com.agm.model.Relation;
-import com.agm.model.RelationType;
+import com.agm.model.TreeListener;
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputAdapter;
@@ -32,8 +45,15 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.ui.Window;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
-import com.badlogic.gdx.utils.Json;
-
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.*;
@@ -41,15 +61,92 @@ import java.util.function.Consumer;
 
 public class EditorScreen extends AbstractScreen {
     private enum Mode {VIEW, ADD_CHILD, ADD_PARENT}
+    private static final float NAME_OFFSET = 30f;
+    // Nombres de la generación 0; las siguientes son familytree-N.* (ver SnapshotGenerations)
+    private static final String TREE_JSON = "familytree.json";
+    private static final String TREE_BINARY = "familytree.agmb";
+    private static final String TREE_JOURNAL = "familytree.journal";
+    private static final int JOURNAL_COMPACT_THRESHOLD = 2000;
+    private static final long AUTOSAVE_DEBOUNCE_MS = 2000;
+    private static final long AUTOSAVE_MAX_DELAY_MS = 30000;
+    private static final float GRID_CELL_SIZE = 512f;
+    private static final int BATCH_SIZE = 8191;   // máximo de SpriteBatch: menos vaciados con miles de nodos
+    private static final float COUNT_TEXT_PIXELS = 1.5f;   // escala en pantalla del número de los grupos
+    private static final float AUTOSAVE_POLL_SECONDS = 0.5f;
+    private static final Color BACKGROUND = new Color(0.15f, 0.15f, 0.2f, 1f);
+    private static final long TILE_CACHE_BYTES = 48L * 1024 * 1024;   // 48 teselas de 512×512
+    // Holgura vertical alrededor de un nodo movido: círculo, etiqueta y el tramo de conexión bajo él.
+    // La horizontal es la media anchura real de su etiqueta (ViewportCuller.halfWidth)
+    private static final float TILE_MARGIN_Y = NodeView.RADIUS + NAME_OFFSET;
+    // Con más nodos movidos que esto sale más barato redibujar todas las teselas que recorrerlas por nodo
+    private static final int MAX_REGION_INVALIDATIONS = 4096;
+    private static final int OVERLAY_KEY = Input.Keys.F3;        // muestra u oculta las métricas
+    private static final int METRICS_DUMP_KEY = Input.Keys.F4;   // vuelca las métricas a fichero y al log
+    private static final String METRICS_FILE = "metrics.json";
 
     private ShapeRenderer shapeRenderer;
     private SpriteBatch batch;
     private Skin skin;
     private BitmapFont font;
-    private final List<NodeView> nodes = new ArrayList<>();
-    private final FamilyTree tree = new FamilyTree();
+    private final NodeRegistry nodes = new NodeRegistry();
+    private final ConnectorCache connectors = new ConnectorCache(NAME_OFFSET, GRID_CELL_SIZE);
+    private final ViewportCuller culler = new ViewportCuller(NAME_OFFSET);
+    private final SpatialGrid grid = new SpatialGrid(GRID_CELL_SIZE);
+    private NodeBatchRenderer nodeRenderer;
+    private final TileCache tiles = new TileCache(TILE_CACHE_BYTES, BACKGROUND);
+    private final TileCache.Painter tilePainter = this::paintTile;
+    private final IntArray movedHandles = new IntArray();
+    private final MetricsOverlay overlay = new MetricsOverlay();
+
+    // Métricas (se registran en show); las secciones del frame se suman por frame
+    private MetricsRegistry metrics;
+    private MetricsRegistry.Metric frameTime, tilesTime, connectorsTime, nodesTime, labelsTime, stageTime;
+    private MetricsRegistry.Metric tilesPainted, visibleNodes, totalNodes, heapUsed;
+    private MetricsRegistry.Metric incrementalLayoutTime, loadTime, saveTime;
+    private final LodPolicy lod = new LodPolicy();
+    private final IntArray clusterHandles = new IntArray();
+    private final IntArray clusterSizes = new IntArray();
+    private final StringBuilder countText = new StringBuilder();
+    private final Vector3 touchPoint = new Vector3();   // reutilizado en cada toque
+    private static final float LEAF_WIDTH = NodeView.RADIUS * 2 + 50f;
+    private static final float VERTICAL_GAP = NodeView.RADIUS * 2 + 100f;
+    private final LayoutWorker layoutWorker = new LayoutWorker(LEAF_WIDTH, VERTICAL_GAP);
+    private TreeLayout treeLayout = new TreeLayout(LEAF_WIDTH, VERTICAL_GAP);   // último layout publicado
+    private FamilyTree tree;   // lo crea loadTree según el almacenamiento configurado
     private NodeView selectedNode = null;
-    private Table menuTable = null;
+    private Table menuTable;      // se crea una vez y sólo se recoloca para cada nodo
+    private NodeView menuNode;    // nodo sobre el que actúan los botones del menú
+    private boolean useBinary = false;   // formato con el que se cargó y se guardará el árbol
+    private long journalValidLength;     // bytes válidos del diario según el replay de la carga
+    private EditJournal journal;
+    private SnapshotGenerations snapshots;   // instantáneas del formato en uso
+    private TreeSerializer snapshotSerializer;
+    private AutosaveScheduler autosave;
+    // Sin renderizado continuo no hay frames en reposo: el autoguardado se comprueba con un temporizador,
+    // que sólo corre mientras haya cambios sin guardar para no despertar la aplicación en reposo
+    private final Timer.Task autosaveTask = new Timer.Task() {
+        @Override
+        public void run() {
+            autosave.update(TimeUtils.millis());
+            if (!autosave.isDirty()) cancel();
+        }
+    };
+    private final TreeListener autosaveTrigger = new TreeListener() {
+        @Override
+        public void personAdded(Person p) {
+            scheduleAutosave();
+        }
+
+        @Override
+        public void personChanged(Person p) {
+            scheduleAutosave();
+        }
+
+        @Override
+        public void relationAdded(Relation r) {
+            scheduleAutosave();
+        }
+    };
 
     public EditorScreen(MainGame game) {
         super(game);
@@ -59,28 +156,49 @@ public class EditorScreen extends AbstractScreen {
     public void show() {
         super.show();
         shapeRenderer = new ShapeRenderer();
-        batch = new SpriteBatch();
+        batch = new SpriteBatch(BATCH_SIZE);
+        nodeRenderer = new NodeBatchRenderer();
 
         // Skin y fuente
         skin = createBasicSkin();
         font = new BitmapFont();
         font.getData().setScale(2f);
         skin.add("big-font", font);
+        createNodeMenu();
 
         // Cámara con zoom inicial
         OrthographicCamera cam = (OrthographicCamera) stage.getCamera();
         cam.zoom = 0.7f;
         cam.update();
 
+        registerMetrics();
+
         // Carga existente o crea raíz
+        loadTime.start();
         loadTree();
-        if (tree.getPeople().isEmpty()) {
+        loadTime.stop();
+        // A partir de aquí cada cambio del árbol queda en el diario, que lleva su propia copia para las instantáneas
+        journal = new EditJournal(Gdx.files.local(TREE_JOURNAL).file(), journalValidLength, tree.copy(),
+            JOURNAL_COMPACT_THRESHOLD);
+        journal.setFailureListener(() -> Gdx.app.postRunnable(this::showJournalError));
+        tree.addListener(journal);
+        // Instantánea completa en segundo plano cuando el árbol lleva un rato sin cambios (o el diario crece)
+        TreeSerializer format = useBinary ? BinaryTreeWriter::write : TreeJsonWriter::write;
+        // Se mide en el hilo del diario, que es donde se escribe
+        snapshotSerializer = (snapshot, out) -> {
+            long start = System.nanoTime();
+            format.write(snapshot, out);
+            saveTime.record(System.nanoTime() - start);
+        };
+        autosave = new AutosaveScheduler(tree, journal, snapshots, snapshotSerializer,
+            AUTOSAVE_DEBOUNCE_MS, AUTOSAVE_MAX_DELAY_MS);
+        tree.addListener(autosaveTrigger);
+        if (tree.getPersonCount() == 0) {
             Person root = new Person(UUID.randomUUID().toString(),
                 "Raíz", "", LocalDate.now(), null, "");
-            tree.addPerson(root);
-            nodes.add(new NodeView(root, 0, 0));
+            nodes.add(new NodeView(tree, tree.addPerson(root), 0, 0));
         }
-        // Posiciona todos los nodos
+        // Posiciona todos los nodos (en segundo plano)
         layoutTree();
 
         // Configura todos los InputProcessors EN ORDEN
@@ -96,7 +214,7 @@ public class EditorScreen extends AbstractScreen {
                     lastDist = initialDist;
                     startZoom = cam.zoom;
                 }
-                cam.zoom = MathUtils.clamp(startZoom * (initialDist/distance), 0.3f, 3f);
+                cam.zoom = MathUtils.clamp(startZoom * (initialDist/distance), 0.3f, lod.getMaxZoom());
                 cam.update();
                 return true;
             }
@@ -105,93 +223,222 @@ public class EditorScreen extends AbstractScreen {
 
         InputAdapter touchSelect = new InputAdapter() {
             @Override public boolean touchDown(int sx, int sy, int p, int b) {
-                Vector3 wp = new Vector3(sx, sy, 0);
-                stage.getViewport().unproject(wp);
-                NodeView hit = findHitNode(wp.x, wp.y);
+                stage.getViewport().unproject(touchPoint.set(sx, sy, 0));
+                NodeView hit = findHitNode(touchPoint.x, touchPoint.y);
                 if (hit != null) {
                     selectedNode = hit;
                     showNodeMenu(hit);
-                } else if (menuTable != null) {
+                } else if (menuTable.hasParent()) {
                     menuTable.remove();
-                    menuTable = null;
                     selectedNode = null;
                 }
                 return true;
             }
         };
 
+        InputAdapter metricsKeys = new InputAdapter() {
+            @Override public boolean keyDown(int keycode) {
+                if (keycode == OVERLAY_KEY) {
+                    setOverlayVisible(!overlay.isVisible());
+                    return true;
+                }
+                if (keycode == METRICS_DUMP_KEY) {
+                    dumpMetrics();
+                    return true;
+                }
+                return false;
+            }
+        };
+
         InputMultiplexer mux = new InputMultiplexer();
+        mux.addProcessor(metricsKeys);
         mux.addProcessor(stage);
         mux.addProcessor(gestureDetector);
         mux.addProcessor(touchSelect);
         Gdx.input.setInputProcessor(mux);
+
+        // Frames sólo cuando hacen falta: la entrada los pide sola (y el Stage mientras tenga acciones
+        // en curso); el resto de cambios llaman a requestRendering()
+        Gdx.graphics.setContinuousRendering(!game.isOnDemandRendering());
     }
 
 
     @Override
     public void render(float delta) {
-        Gdx.gl.glClearColor(0.15f, 0.15f, 0.2f, 1f);
+        frameTime.start();
+        Gdx.gl.glClearColor(BACKGROUND.r, BACKGROUND.g, BACKGROUND.b, BACKGROUND.a);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-        shapeRenderer.setProjectionMatrix(stage.getCamera().combined);
-        batch.setProjectionMatrix(stage.getCamera().combined);
-
-        float nameOffset = 30f;
+        // Capa estática: se recompone con teselas ya dibujadas; sólo se pintan las nuevas o invalidadas
+        OrthographicCamera cam = (OrthographicCamera) stage.getCamera();
+        LodPolicy.Tier tier = lod.tierFor(cam.zoom);
+        tilesTime.start();
+        tiles.draw(batch, cam, tier, tilePainter);
+        tilesTime.stop();
+        tilesPainted.record(tiles.getPaintedLastFrame());
+        if (tiles.getPaintedLastFrame() > 0) culler.logStats();
+        if (culler.takeWidened()) {
+            // Una etiqueta más ancha que el margen de la rejilla: lo ya pintado pudo cortarla
+            tiles.invalidate(LodPolicy.Tier.FULL);
+            Gdx.graphics.requestRendering();
+        }
 
-        // Dibujar conexiones
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-        Map<String, List<NodeView>> groups = new HashMap<>();
-        for (Relation rel : tree.getRelations()) {
-            if (rel.getType() != RelationType.PARENT) continue;   // ⇦ filtra
-            NodeView child = findNodeById(rel.getToId());         //  ⇦ nuevo getter
-            if (child != null) {
-                groups.computeIfAbsent(rel.getFromId(), k -> new ArrayList<>())
-                    .add(child);
-            }
+        // Capas que cambian sin tocar el árbol: selección y UI
+        if (selectedNode != null && (tier == LodPolicy.Tier.FULL || tier == LodPolicy.Tier.NO_LABELS)) {
+            batch.begin();
+            nodeRenderer.drawSelection(batch, selectedNode);
+            batch.end();
+        }
+        stageTime.start();
+        super.render(delta);
+        stageTime.stop();
+        frameTime.stop();
+
+        totalNodes.record(nodes.size());
+        heapUsed.record(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        if (overlay.isVisible()) {
+            // Los nodos visibles en la cámara sólo se cuentan para el panel: las teselas ya no los recorren
+            culler.begin(cam);
+            culler.setLabelFont(tier == LodPolicy.Tier.FULL ? font : null);
+            visibleNodes.record(culler.cullNodes(grid).size());
+            int width = Gdx.graphics.getBackBufferWidth(), height = Gdx.graphics.getBackBufferHeight();
+            overlay.draw(batch, skin.getFont("default-font"), metrics, Gdx.graphics.getFramesPerSecond(), width, height);
         }
+        metrics.endFrame();
+    }
 
-        for (Map.Entry<String, List<NodeView>> e : groups.entrySet()) {
-            NodeView parent = findNodeById(e.getKey());
-            List<NodeView> children = e.getValue();
-            if (parent == null || children.isEmpty()) continue;
+    private void registerMetrics() {
+        metrics = game.getMetrics();
+        frameTime = metrics.section("frame");
+        tilesTime = metrics.section("frame.tiles");
+        connectorsTime = metrics.section("frame.tiles.connectors");
+        nodesTime = metrics.section("frame.tiles.nodes");
+        labelsTime = metrics.section("frame.tiles.labels");
+        stageTime = metrics.section("frame.stage");
+        tilesPainted = metrics.gauge("tiles.painted", MetricsRegistry.Unit.COUNT);
+        visibleNodes = metrics.gauge("nodes.visible", MetricsRegistry.Unit.COUNT);
+        totalNodes = metrics.gauge("nodes.total", MetricsRegistry.Unit.COUNT);
+        heapUsed = metrics.gauge("heap.used", MetricsRegistry.Unit.BYTES);
+        layoutWorker.setDurationMetric(metrics.timer("layout.full"));
+        incrementalLayoutTime = metrics.timer("layout.incremental");
+        loadTime = metrics.timer("tree.load");
+        saveTime = metrics.timer("tree.save");
+    }
 
-            float px = parent.getX();
-            float py = parent.getY();
-            float connectorY = py - NodeView.RADIUS - 20;
+    /** Con el panel visible se pinta sin parar para que FPS y tiempos sigan vivos. */
+    private void setOverlayVisible(boolean visible) {
+        overlay.setVisible(visible);
+        Gdx.graphics.setContinuousRendering(visible || !game.isOnDemandRendering());
+        Gdx.graphics.requestRendering();
+    }
+
+    private void dumpMetrics() {
+        FileHandle file = Gdx.files.local(METRICS_FILE);
+        try (Writer w = file.writer(false, "UTF-8")) {
+            metrics.writeJson(w);
+        } catch (IOException e) {
+            Gdx.app.error("Metrics", "No se pudo escribir " + file.path(), e);
+        }
+        metrics.log("Metrics");
+        Gdx.app.log("Metrics", "Métricas volcadas en " + file.path());
+    }
+
+    /** Dibuja una tesela: la escena tal como la ve su cámara, con el nivel de detalle de la vista. */
+    private void paintTile(OrthographicCamera tileCam, LodPolicy.Tier tier, float zoom) {
+        shapeRenderer.setProjectionMatrix(tileCam.combined);
+        batch.setProjectionMatrix(tileCam.combined);
+        culler.begin(tileCam);
+        culler.setLabelFont(tier == LodPolicy.Tier.FULL ? font : null);
+        if (tier == LodPolicy.Tier.CLUSTERS) {
+            renderClusters(zoom);
+        } else {
+            renderNodes(tier, zoom);
+        }
+    }
 
-            shapeRenderer.setColor(Color.WHITE);
-            shapeRenderer.line(px, py - NodeView.RADIUS, px, connectorY);
+    /** Conexiones, nodos y (en FULL) nombres de lo que toca la vista. */
+    private void renderNodes(LodPolicy.Tier tier, float zoom) {
+        // Dibujar conexiones (geometría cacheada, sólo cambia tras un layout)
+        connectorsTime.start();
+        connectors.rebuildIfDirty(tree, nodes);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        connectors.draw(shapeRenderer, culler);
+        shapeRenderer.end();
+        connectorsTime.stop();
 
-            float firstX = children.get(0).getX();
-            float lastX = children.get(children.size() - 1).getX();
-            shapeRenderer.line(firstX, connectorY, lastX, connectorY);
+        // Sólo los nodos que tocan la vista
+        List<NodeView> visible = culler.cullNodes(grid);
 
-            for (NodeView c : children) {
-                float stopY = c.getY() + NodeView.RADIUS + nameOffset;
-                shapeRenderer.line(c.getX(), connectorY, c.getX(), stopY);
+        // Dibujar nodos (un solo lote con la textura de círculo) y después los nombres
+        nodesTime.start();
+        batch.begin();
+        if (tier == LodPolicy.Tier.POINTS) {
+            nodeRenderer.drawPoints(batch, visible, lod.pointRadius(zoom));
+        } else {
+            nodeRenderer.draw(batch, visible, null);   // la selección va en la capa de encima
+        }
+        nodesTime.stop();
+        // El vaciado del lote (nodos y nombres juntos) cuenta en los nombres
+        labelsTime.start();
+        if (tier == LodPolicy.Tier.FULL) {
+            for (int i = 0, n = visible.size(); i < n; i++) {
+                NodeView nv = visible.get(i);
+                GlyphLayout layout = nv.getLabel(font);
+                float nameX = nv.getX() - layout.width / 2f;
+                float nameY = nv.getY() + NodeView.RADIUS + NAME_OFFSET;
+                if (!culler.overlaps(nameX, nameY - layout.height, nameX + layout.width, nameY)) continue;
+                font.draw(batch, layout, nameX, nameY);
             }
         }
-        shapeRenderer.end();
+        batch.end();
+        labelsTime.stop();
+    }
 
-        // Dibujar nodos
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        for (NodeView nv : nodes) {
-            nv.draw(shapeRenderer, nv == selectedNode);
+    /** Vista lejana: los subárboles estrechos en pantalla se dibujan como un disco con su número de miembros. */
+    private void renderClusters(float zoom) {
+        float pointRadius = lod.pointRadius(zoom);
+        float clusterRadius = lod.clusterRadius(zoom);
+        clusterHandles.clear();
+        clusterSizes.clear();
+        treeLayout.collectClusters(culler.getMinX() - clusterRadius, culler.getMaxX() + clusterRadius,
+            culler.getMinY() - clusterRadius, lod.clusterWidth(zoom), clusterHandles, clusterSizes);
+
+        // Cada nodo o grupo se une con su padre, que siempre está expandido
+        connectorsTime.start();
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        shapeRenderer.setColor(Color.WHITE);
+        for (int i = 0; i < clusterHandles.size; i++) {
+            int h = clusterHandles.get(i);
+            NodeView nv = nodes.getByHandle(h);
+            NodeView parent = nodes.getByHandle(treeLayout.getParentHandle(h));
+            if (nv != null && parent != null) shapeRenderer.line(parent.getX(), parent.getY(), nv.getX(), nv.getY());
         }
         shapeRenderer.end();
+        connectorsTime.stop();
 
-        // Dibujar nombres
+        nodesTime.start();
         batch.begin();
-        for (NodeView nv : nodes) {
-            String name = nv.getPerson().getFirstName();
-            GlyphLayout layout = new GlyphLayout(font, name);
-            float nameX = nv.getX() - layout.width / 2f;
-            float nameY = nv.getY() + NodeView.RADIUS + nameOffset;
-            font.draw(batch, layout, nameX, nameY);
+        for (int i = 0; i < clusterHandles.size; i++) {
+            NodeView nv = nodes.getByHandle(clusterHandles.get(i));
+            if (nv == null) continue;
+            boolean cluster = clusterSizes.get(i) > 1;
+            nodeRenderer.drawDisc(batch, nv.getX(), nv.getY(), cluster ? clusterRadius : pointRadius, cluster);
         }
+        // El número se dibuja a tamaño constante en pantalla; luego se restaura la escala de los nombres
+        float scale = font.getData().scaleX;
+        font.getData().setScale(COUNT_TEXT_PIXELS * zoom);
+        float textOffset = font.getCapHeight() / 2f;
+        for (int i = 0; i < clusterHandles.size; i++) {
+            if (clusterSizes.get(i) <= 1) continue;
+            NodeView nv = nodes.getByHandle(clusterHandles.get(i));
+            if (nv == null) continue;
+            countText.setLength(0);
+            countText.append(clusterSizes.get(i));
+            font.draw(batch, countText, nv.getX(), nv.getY() + textOffset, 0f, Align.center, false);
+        }
+        font.getData().setScale(scale);
         batch.end();
-
-        super.render(delta);
+        nodesTime.stop();
     }
 
     @Override
@@ -202,16 +449,46 @@ public class EditorScreen extends AbstractScreen {
     @Override
     public void dispose() {
         super.dispose();
-        saveTree();
+        autosaveTask.cancel();
+        Gdx.graphics.setContinuousRendering(true);
+        // El diario ya contiene todos los cambios: basta con vaciar lo pendiente. Si ha fallado, se
+        // guarda el árbol completo y se vacía, para que al cargar no se reaplique lo anterior al fallo
+        journal.close(snapshots, snapshotSerializer);
+        layoutWorker.dispose();
         shapeRenderer.dispose();
+        tiles.dispose();
+        nodeRenderer.dispose();
         batch.dispose();
         skin.dispose();
         font.dispose();
     }
 
-    private void showNodeMenu(NodeView node) {
-        if (menuTable != null) menuTable.remove();
+    /** Arranca la comprobación periódica del autoguardado si no estaba ya en marcha. */
+    private void scheduleAutosave() {
+        if (!autosaveTask.isScheduled()) Timer.schedule(autosaveTask, AUTOSAVE_POLL_SECONDS, AUTOSAVE_POLL_SECONDS);
+    }
+
+    private void showJournalError() {
+        Dialog error = new Dialog("Error al guardar", skin) {
+            @Override
+            protected void result(Object object) {
+                hide();
+            }
+        };
+        error.getContentTable().pad(20).defaults().pad(10).left().width(500);
+        error.getContentTable().add(new Label("No se pueden escribir los cambios en el disco.", skin)).row();
+        error.getContentTable().add(new Label("Se reintentará al guardar el árbol completo y al cerrar.", skin)).row();
+        error.button("Cerrar", true).pad(15);
+        error.key(Input.Keys.ESCAPE, true);
+        error.show(stage).setPosition(
+            (stage.getViewport().getWorldWidth() - error.getWidth()) / 2,
+            (stage.getViewport().getWorldHeight() - error.getHeight()) / 2
+        );
+        Gdx.graphics.requestRendering();
+    }
 
+    /** Menú contextual de los nodos; los botones actúan sobre {@link #menuNode}. */
+    private void createNodeMenu() {
         menuTable = new Table(skin);
         menuTable.setBackground("white");
         menuTable.pad(20).defaults().pad(10).minWidth(180).minHeight(50);
@@ -229,7 +506,7 @@ public class EditorScreen extends AbstractScreen {
         btnView.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent e, float x, float y) {
-                Person p = node.getPerson();
+                Person p = menuNode.getPerson();
 
                 // Creamos un diálogo personalizado
                 Dialog info = new Dialog("Info de " + p.getFirstName(), skin) {
@@ -266,41 +543,43 @@ public class EditorScreen extends AbstractScreen {
         btnEdit.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent e, float x, float y) {
-                editNodeData(node, null);
+                editNodeData(menuNode, null);
                 menuTable.remove();
-                menuTable = null;
             }
         });
 
         btnAddCh.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent e, float x, float y) {
+                NodeView node = menuNode;
                 editNodeData(node, newPerson -> {
-                    tree.addPerson(newPerson);
-                    tree.addParentChild(node.getPerson().getId(), newPerson.getId());
-                    nodes.add(new NodeView(newPerson, 0, 0));
-                    layoutTree();
+                    int child = tree.addPerson(newPerson);
+                    tree.addParentChild(node.getHandle(), child);
+                    addNodeView(child);
+                    relayoutAfterLink(node.getHandle(), child);
                 });
                 menuTable.remove();
-                menuTable = null;
             }
         });
 
         btnAddPar.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent e, float x, float y) {
+                NodeView node = menuNode;
                 editNodeData(node, newPerson -> {
-                    tree.addPerson(newPerson);
-                    tree.addParentChild(newPerson.getId(), node.getPerson().getId());
-                    nodes.add(new NodeView(newPerson, 0, 0));
-                    layoutTree();
+                    int parent = tree.addPerson(newPerson);
+                    tree.addParentChild(parent, node.getHandle());
+                    addNodeView(parent);
+                    relayoutAfterLink(parent, node.getHandle());
                 });
                 menuTable.remove();
-                menuTable = null;
             }
         });
-
         menuTable.pack();
+    }
+
+    private void showNodeMenu(NodeView node) {
+        menuNode = node;
         float px = node.getX() - menuTable.getWidth() / 2f;
         float py = node.getY() - NodeView.RADIUS - menuTable.getHeight() - 20;
         menuTable.setPosition(px, py);
@@ -308,10 +587,11 @@ public class EditorScreen extends AbstractScreen {
     }
 
     private void editNodeData(NodeView base, Consumer<Person> onCreated) {
-        String initFull = onCreated == null ? base.getPerson().getFirstName() + " " + base.getPerson().getLastName() : "";
-        String initBD = onCreated == null ? base.getPerson().getBirthDate().toString() : LocalDate.now().toString();
-        String initDD = onCreated == null && base.getPerson().getDeathDate() != null ? base.getPerson().getDeathDate().toString() : "";
-        String initQ = onCreated == null ? base.getPerson().getQuote() : "";
+        Person current = base.getPerson();
+        String initFull = onCreated == null ? current.getFirstName() + " " + current.getLastName() : "";
+        String initBD = onCreated == null ? current.getBirthDate().toString() : LocalDate.now().toString();
+        String initDD = onCreated == null && current.getDeathDate() != null ? current.getDeathDate().toString() : "";
+        String initQ = onCreated == null ? current.getQuote() : "";
 
         // 1. Nombre
         Gdx.input.getTextInput(new TextInputListener() {
@@ -350,12 +630,17 @@ public class EditorScreen extends AbstractScreen {
                                     @Override
                                     public void input(String quoteText) {
                                         if (onCreated == null) {
-                                            // editar
-                                            base.getPerson().setFirstName(fName);
-                                            base.getPerson().setLastName(lName);
-                                            base.getPerson().setBirthDate(finalBd);
-                                            base.getPerson().setDeathDate(finalDd);
-                                            base.getPerson().setQuote(quoteText);
+                                            // editar (se vuelve a pedir: con el árbol paginado la copia anterior pudo expulsarse)
+                                            Person target = base.getPerson();
+                                            invalidateTilesAround(base, base.getX(), base.getY());   // la etiqueta vieja
+                                            target.setFirstName(fName);
+                                            target.setLastName(lName);
+                                            target.setBirthDate(finalBd);
+                                            target.setDeathDate(finalDd);
+                                            target.setQuote(quoteText);
+                                            tree.personChanged(target);
+                                            invalidateTilesAround(base, base.getX(), base.getY());   // y la nueva
+                                            Gdx.graphics.requestRendering();
                                         } else {
                                             // crear
                                             Person np = new Person(UUID.randomUUID().toString(), fName, lName, finalBd, finalDd, quoteText);
@@ -390,72 +675,130 @@ public class EditorScreen extends AbstractScreen {
     // ─── Métodos de búsqueda ───────────────────────────────────────────────────
 
     private NodeView findHitNode(float x, float y) {
-        for (int i = nodes.size() - 1; i >= 0; i--) {
-            if (nodes.get(i).contains(x, y)) return nodes.get(i);
-        }
-        return null;
+        return grid.queryPoint(x, y);
     }
 
     private NodeView findNodeById(String id) {
-        return nodes.stream().filter(nv -> nv.getPerson().getId().equals(id)).findFirst().orElse(null);
+        return nodes.getByHandle(tree.handleOf(id));
     }
 
-    // ─── Layout recursivo para evitar solapamientos ────────────────────────────
+    // ─── Layout ────────────────────────────────────────────────────────────────
 
-    private List<NodeView> getChildren(NodeView parent) {
-        List<NodeView> result = new ArrayList<>();
-        for (Relation r : tree.getRelations()) {
-            if (r.getType() == RelationType.PARENT &&
-                r.getFromId().equals(parent.getPerson().getId())) {
-                NodeView c = findNodeById(r.getToId());
-                if (c != null) result.add(c);
-            }
-        }
-        return result;
+    /** True mientras haya un layout completo calculándose o pendiente de publicar. */
+    public boolean isLayoutPending() {
+        return layoutWorker.isBusy();
     }
 
+    /** Pide un layout completo en segundo plano; hasta que llegue se sigue pintando el anterior. */
+    private void layoutTree() {
+        if (nodes.isEmpty()) return;
+        NodeView root = nodes.get(0);
+        float startX = stage.getViewport().getWorldWidth() / 2f;
+        float startY = stage.getViewport().getWorldHeight() / 2f;
+
+        layoutWorker.submit(tree.snapshotStructure(), root.getHandle(), startX, startY, this::applyLayout);
+    }
 
-    private float computeSubtreeWidth(NodeView node, Map<String, Float> widthMap) {
-        List<NodeView> children = getChildren(node);
-        if (children.isEmpty()) {
-            float w = NodeView.RADIUS * 2 + 50f;
-            widthMap.put(node.getPerson().getId(), w);
-            return w;
-        }
-        float total = 0f;
-        for (NodeView c : children) {
-            total += computeSubtreeWidth(c, widthMap);
+    /** Publica un layout terminado en las vistas. Hilo de render. */
+    private void applyLayout(TreeLayout layout) {
+        treeLayout = layout;
+        // En modo debug cada layout incremental posterior se contrasta con uno completo
+        treeLayout.setVerifyIncremental(Gdx.app.getLogLevel() >= Application.LOG_DEBUG);
+        for (int i = 0, n = layout.size(); i < n; i++) {
+            NodeView nv = nodes.getByHandle(layout.getHandle(i));
+            if (nv != null) moveNode(nv, layout.getX(i), layout.getY(i));
         }
-        widthMap.put(node.getPerson().getId(), total);
-        return total;
+        grid.rebuild(nodes);
+        endMoves();
     }
 
-    private void layoutSubtree(NodeView node, float centerX, float y, Map<String, Float> widthMap) {
-        node.setPosition(centerX, y);
-        List<NodeView> children = getChildren(node);
-        if (children.isEmpty()) return;
+    /**
+     * Coloca un nodo en su nueva posición invalidando antes las teselas de lo que dibujaba allí.
+     * Cerrar la tanda con {@link #endMoves}.
+     */
+    private void moveNode(NodeView nv, float x, float y) {
+        if (nv.getX() == x && nv.getY() == y) return;
+        // Sus vecinos aún no movidos siguen donde estaban: el rectángulo cubre las líneas viejas
+        if (movedHandles.size < MAX_REGION_INVALIDATIONS) invalidateTilesAround(nv, x, y);
+        movedHandles.add(nv.getHandle());
+        nv.setPosition(x, y);
+    }
 
-        float subtreeWidth = widthMap.get(node.getPerson().getId());
-        float startX = centerX - subtreeWidth / 2f;
-        float verticalGap = NodeView.RADIUS * 2 + 100f;
+    /** Tras una tanda de moveNode: invalida lo que los nodos dibujan ya en su sitio y pide un frame. */
+    private void endMoves() {
+        if (movedHandles.size >= MAX_REGION_INVALIDATIONS) {
+            tiles.invalidateAll();
+        } else {
+            for (int i = 0; i < movedHandles.size; i++) {
+                NodeView nv = nodes.getByHandle(movedHandles.get(i));
+                if (nv != null) invalidateTilesAround(nv, nv.getX(), nv.getY());
+            }
+        }
+        movedHandles.clear();
+        // Los tamaños de los grupos cambian sin que se mueva su nodo raíz
+        tiles.invalidate(LodPolicy.Tier.CLUSTERS);
+        connectors.invalidate();
+        Gdx.graphics.requestRendering();
+    }
 
-        for (NodeView c : children) {
-            float childWidth = widthMap.get(c.getPerson().getId());
-            float childCenter = startX + childWidth / 2f;
-            layoutSubtree(c, childCenter, y - verticalGap, widthMap);
-            startX += childWidth;
+    /**
+     * Invalida las teselas que cubren el nodo en su posición actual y en (x, y), junto con sus
+     * padres e hijos: ahí están todas las líneas que lo tocan. A lo ancho se cubre toda su etiqueta.
+     */
+    private void invalidateTilesAround(NodeView nv, float x, float y) {
+        float minX = Math.min(nv.getX(), x), maxX = Math.max(nv.getX(), x);
+        float minY = Math.min(nv.getY(), y), maxY = Math.max(nv.getY(), y);
+        for (int pass = 0; pass < 2; pass++) {
+            IntArray related = pass == 0 ? tree.getParents(nv.getHandle()) : tree.getChildren(nv.getHandle());
+            for (int i = 0; i < related.size; i++) {
+                NodeView other = nodes.getByHandle(related.get(i));
+                if (other == null) continue;
+                minX = Math.min(minX, other.getX());
+                maxX = Math.max(maxX, other.getX());
+                minY = Math.min(minY, other.getY());
+                maxY = Math.max(maxY, other.getY());
+            }
         }
+        float marginX = culler.halfWidth(nv, font);
+        tiles.invalidate(minX - marginX, minY - TILE_MARGIN_Y, maxX + marginX, maxY + TILE_MARGIN_Y);
     }
 
-    private void layoutTree() {
-        if (nodes.isEmpty()) return;
-        NodeView root = nodes.get(0);
-        float startX = stage.getViewport().getWorldWidth() / 2f;
-        float startY = stage.getViewport().getWorldHeight() / 2f;
+    /** Registra la vista de una persona nueva en (0,0) hasta que el layout la coloque. */
+    private void addNodeView(int handle) {
+        NodeView nv = new NodeView(tree, handle, 0, 0);
+        nodes.add(nv);
+        grid.insert(nv);
+    }
 
-        Map<String, Float> widthMap = new HashMap<>();
-        computeSubtreeWidth(root, widthMap);
-        layoutSubtree(root, startX, startY, widthMap);
+    /** Tras añadir una relación padre→hijo mueve sólo lo afectado; si no es posible, layout completo. */
+    private void relayoutAfterLink(int parent, int child) {
+        // Con un layout completo en vuelo el incremental partiría de datos viejos: se pide otro completo
+        if (layoutWorker.isBusy()) {
+            layoutTree();
+            return;
+        }
+        boolean applied;
+        incrementalLayoutTime.start();
+        try {
+            applied = treeLayout.applyChildAdded(tree, parent, child);
+        } catch (IllegalStateException e) {
+            // Sólo ocurre con la verificación de debug activa
+            Gdx.app.error("Layout", "El layout incremental no coincide con el completo", e);
+            applied = false;
+        }
+        incrementalLayoutTime.stop();
+        if (!applied) {
+            layoutTree();
+            return;
+        }
+        for (int i = 0, n = treeLayout.getChangedCount(); i < n; i++) {
+            NodeView nv = nodes.getByHandle(treeLayout.getChangedHandle(i));
+            if (nv == null) continue;
+            float oldX = nv.getX(), oldY = nv.getY();
+            moveNode(nv, treeLayout.getChangedX(i), treeLayout.getChangedY(i));
+            grid.move(nv, oldX, oldY);
+        }
+        endMoves();
     }
 
     private Skin createBasicSkin() {
@@ -511,37 +854,58 @@ public class EditorScreen extends AbstractScreen {
 
 
     /**
-     * Guarda el árbol en familytree.json (local).
-     */
-    private void saveTree() {
-        Json json = new Json();
-        String data = json.toJson(tree);
-        FileHandle fh = Gdx.files.local("familytree.json");
-        fh.writeString(data, false);
-    }
-
-    /**
-     * Carga el árbol si existe y reconstruye Person, Relation y NodeView.
+     * Carga la última generación de instantánea si existe y aplica encima el diario de ediciones;
+     * después reconstruye las NodeView. El binario tiene preferencia y se abre con el BufferMapper de la
+     * plataforma (mapeado en memoria en escritorio). Si el juego tiene caché de personas, del binario
+     * sólo se cargan ids y relaciones y el resto se pagina bajo demanda.
      */
     private void loadTree() {
-        FileHandle fh = Gdx.files.local("familytree.json");
-        if (!fh.exists()) return;
-
-        Json json = new Json();
-        FamilyTree loaded = json.fromJson(FamilyTree.class, fh.readString());
-
-        // 1) Vacío y relleno la lista interna de personas
-        tree.getPeople().clear();
-        tree.getPeople().putAll(loaded.getPeople());
+        SnapshotGenerations binary = new SnapshotGenerations(Gdx.files.local(TREE_BINARY).file());
+        SnapshotGenerations text = new SnapshotGenerations(Gdx.files.local(TREE_JSON).file());
+        useBinary = binary.getCurrent() != null;
+        snapshots = useBinary ? binary : text;
+        FileHandle log = Gdx.files.local(TREE_JOURNAL);
+        tree = new FamilyTree(game.getPersonStorage());
+        if (snapshots.getCurrent() == null && !log.exists()) return;
+
+        // 1) Árbol nuevo relleno registro a registro (addPerson/addRelation mantienen los índices)
+        int cacheSize = game.getPersonCacheSize();
+        if (useBinary) {
+            FileHandle bin = Gdx.files.local(binary.getCurrent().getName());
+            try {
+                BinaryTreeFile file = new BinaryTreeFile(game.getBufferMapper().map(bin));
+                if (cacheSize > 0) {
+                    PagedPersonStore store = new PagedPersonStore(file, cacheSize);
+                    tree = new FamilyTree(store);
+                    store.loadInto(tree);
+                } else {
+                    file.loadInto(tree);
+                }
+            } catch (IOException e) {
+                throw new GdxRuntimeException("No se pudo leer " + bin.path(), e);
+            }
+        } else if (text.getCurrent() != null) {
+            FileHandle json = Gdx.files.local(text.getCurrent().getName());
+            try (InputStream in = json.read()) {
+                TreeJsonReader.read(in, tree);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("No se pudo leer " + json.path(), e);
+            }
+        }
 
-        // 2) Vacío y relleno la lista interna de relaciones
-        tree.getRelationsMutable().clear();
-        tree.getRelationsMutable().addAll(loaded.getRelations());
+        // 2) Cambios posteriores a la instantánea
+        try {
+            EditJournal.Replay replay = EditJournal.replay(log.file(), tree);
+            journalValidLength = replay.getValidLength();
+            if (replay.getApplied() > 0) Gdx.app.log("Journal", replay.getApplied() + " cambios recuperados del diario");
+        } catch (IOException e) {
+            throw new GdxRuntimeException("No se pudo leer " + log.path(), e);
+        }
 
         // 3) Reconstruyo las vistas de nodos
         nodes.clear();
-        for (Person p : tree.getPeople().values()) {
-            nodes.add(new NodeView(p, 0, 0));
+        for (int h = 0, n = tree.getHandleCount(); h < n; h++) {
+            if (tree.hasPerson(h)) nodes.add(new NodeView(tree, h, 0, 0));
         }
     }
 }
@@ -0,0 +1,82 @@
+package com.agm.screens;
+
+/**
+ * Niveles de detalle del árbol según el zoom de la cámara (zoom mayor = más lejos).
+ * Los umbrales son configurables; por defecto todos caen antes del zoom máximo del gesto.
+ */
+public class LodPolicy {
+    public enum Tier {
+        /** Círculos y nombres. */
+        FULL,
+        /** Círculos sin nombres: a esta distancia el texto ya no se lee. */
+        NO_LABELS,
+        /** Cada nodo es un punto de tamaño fijo en pantalla. */
+        POINTS,
+        /** Los subárboles estrechos en pantalla se dibujan como un único grupo con su número de miembros. */
+        CLUSTERS
+    }
+
+    private final float noLabelsZoom, pointsZoom, clustersZoom, maxZoom;
+    private float pointPixels = 3f;
+    private float clusterPixels = 240f;          // unas tres hojas al zoom máximo por defecto
+    private float clusterRadiusPixels = 14f;
+
+    /** Umbrales por defecto para el zoom máximo de 3. */
+    public LodPolicy() {
+        this(2.2f, 2.6f, 2.9f, 3f);
+    }
+
+    /**
+     * @param noLabelsZoom zoom a partir del cual se ocultan los nombres
+     * @param pointsZoom   zoom a partir del cual los nodos son puntos
+     * @param clustersZoom zoom a partir del cual se agrupan subárboles
+     * @param maxZoom      zoom máximo permitido al alejar la cámara
+     */
+    public LodPolicy(float noLabelsZoom, float pointsZoom, float clustersZoom, float maxZoom) {
+        if (!(noLabelsZoom <= pointsZoom && pointsZoom <= clustersZoom)) {
+            throw new IllegalArgumentException("Los umbrales de LOD deben ser crecientes");
+        }
+        this.noLabelsZoom = noLabelsZoom;
+        this.pointsZoom = pointsZoom;
+        this.clustersZoom = clustersZoom;
+        this.maxZoom = maxZoom;
+    }
+
+    public Tier tierFor(float zoom) {
+        if (zoom >= clustersZoom) return Tier.CLUSTERS;
+        if (zoom >= pointsZoom) return Tier.POINTS;
+        if (zoom >= noLabelsZoom) return Tier.NO_LABELS;
+        return Tier.FULL;
+    }
+
+    public float getMaxZoom() {
+        return maxZoom;
+    }
+
+    /** Radio en mundo de un nodo dibujado como punto, para que mida {@code pointPixels} en pantalla. */
+    public float pointRadius(float zoom) {
+        return pointPixels * zoom;
+    }
+
+    /** Ancho en mundo por debajo del cual un subárbol se agrupa (mide menos de {@code clusterPixels} en pantalla). */
+    public float clusterWidth(float zoom) {
+        return clusterPixels * zoom;
+    }
+
+    /** Radio en mundo del disco de un grupo, para que mida {@code clusterRadiusPixels} en pantalla. */
+    public float clusterRadius(float zoom) {
+        return clusterRadiusPixels * zoom;
+    }
+
+    public void setPointPixels(float pointPixels) {
+        this.pointPixels = pointPixels;
+    }
+
+    public void setClusterPixels(float clusterPixels) {
+        this.clusterPixels = clusterPixels;
+    }
+
+    public void setClusterRadiusPixels(float clusterRadiusPixels) {
+        this.clusterRadiusPixels = clusterRadiusPixels;
+    }
+}
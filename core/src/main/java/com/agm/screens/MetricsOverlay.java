@@ -0,0 +1,47 @@
+package com.agm.screens;
+
+import com.agm.metrics.MetricsRegistry;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Texto en la esquina superior izquierda con todas las métricas del registro: media móvil y
+ * máximo de cada una. Se pinta en coordenadas de pantalla, encima de todo lo demás.
+ */
+public class MetricsOverlay {
+    private static final float MARGIN = 10f;
+
+    private final Matrix4 screenProjection = new Matrix4();
+    private final StringBuilder text = new StringBuilder(1024);
+    private boolean visible;
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    /** Pinta el panel con el batch cerrado; deja el batch con la proyección de pantalla. */
+    public void draw(Batch batch, BitmapFont font, MetricsRegistry metrics, int fps, int width, int height) {
+        text.setLength(0);
+        text.append("FPS ").append(fps);
+        for (int i = 0, n = metrics.size(); i < n; i++) {
+            MetricsRegistry.Metric m = metrics.get(i);
+            text.append('\n').append(m.getName()).append("  ");
+            MetricsRegistry.Metric.appendValue(text, m.getUnit(), m.getSmoothed());
+            text.append("  (máx ");
+            MetricsRegistry.Metric.appendValue(text, m.getUnit(), m.getMax());
+            text.append(')');
+        }
+
+        batch.setProjectionMatrix(screenProjection.setToOrtho2D(0, 0, width, height));
+        batch.begin();
+        font.setColor(Color.WHITE);
+        font.draw(batch, text, MARGIN, height - MARGIN);
+        batch.end();
+    }
+}
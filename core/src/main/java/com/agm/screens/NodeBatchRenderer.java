@@ -0,0 +1,110 @@
+package com.agm.screens;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.List;
+
+/**
+ * Dibuja los círculos de los nodos como quads texturizados con una única textura de círculo,
+ * todos en el mismo lote de SpriteBatch. Cada NodeView guarda sus vértices ya calculados y sólo
+ * se rehacen cuando cambia su posición; en cada frame basta con copiarlos al lote.
+ */
+public class NodeBatchRenderer implements Disposable {
+    /** Floats por quad en el formato de SpriteBatch: 4 vértices × (x, y, color, u, v). */
+    public static final int QUAD_FLOATS = 20;
+
+    private static final int TEXTURE_SIZE = 256;   // potencia de dos para poder usar mipmaps
+    private static final float RING_WIDTH = 6f;
+
+    private final Texture circle;
+    private final float nodeColor = Color.FIREBRICK.toFloatBits();
+    private final float ringColor = Color.YELLOW.toFloatBits();
+    private final float clusterColor = Color.SALMON.toFloatBits();
+    private final float[] scratch = new float[QUAD_FLOATS];
+
+    public NodeBatchRenderer() {
+        Pixmap pixmap = circlePixmap(TEXTURE_SIZE);
+        circle = new Texture(pixmap, true);
+        circle.setFilter(Texture.TextureFilter.MipMapLinearLinear, Texture.TextureFilter.Linear);
+        pixmap.dispose();
+    }
+
+    /** Círculo blanco con el borde suavizado (alfa según la cobertura de cada píxel); se tiñe al dibujar. */
+    private static Pixmap circlePixmap(int size) {
+        Pixmap pixmap = new Pixmap(size, size, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        float center = size / 2f, radius = size / 2f - 1f;
+        for (int py = 0; py < size; py++) {
+            for (int px = 0; px < size; px++) {
+                float dx = px + 0.5f - center, dy = py + 0.5f - center;
+                float coverage = Math.max(0f, Math.min(1f, radius - (float) Math.sqrt(dx * dx + dy * dy) + 0.5f));
+                pixmap.drawPixel(px, py, Color.rgba8888(1f, 1f, 1f, coverage));
+            }
+        }
+        return pixmap;
+    }
+
+    /**
+     * Añade al lote los nodos visibles y, debajo del seleccionado, su anillo.
+     * El batch debe estar entre begin() y end().
+     */
+    public void draw(Batch batch, List<NodeView> visible, NodeView selected) {
+        if (selected != null) {
+            drawDisc(batch, selected.getX(), selected.getY(), NodeView.RADIUS + RING_WIDTH, ringColor);
+        }
+        for (int i = 0, n = visible.size(); i < n; i++) {
+            NodeView nv = visible.get(i);
+            if (nv.quadDirty) {
+                fillQuad(nv.quad, nv.getX(), nv.getY(), NodeView.RADIUS, nodeColor);
+                nv.quadDirty = false;
+            }
+            batch.draw(circle, nv.quad, 0, QUAD_FLOATS);
+        }
+    }
+
+    /** Anillo y círculo del nodo seleccionado, para pintarlos encima de una capa ya dibujada. */
+    public void drawSelection(Batch batch, NodeView selected) {
+        drawDisc(batch, selected.getX(), selected.getY(), NodeView.RADIUS + RING_WIDTH, ringColor);
+        if (selected.quadDirty) {
+            fillQuad(selected.quad, selected.getX(), selected.getY(), NodeView.RADIUS, nodeColor);
+            selected.quadDirty = false;
+        }
+        batch.draw(circle, selected.quad, 0, QUAD_FLOATS);
+    }
+
+    /** Nivel de detalle bajo: cada nodo como un punto de {@code radius} (en mundo) sin anillo de selección. */
+    public void drawPoints(Batch batch, List<NodeView> visible, float radius) {
+        for (int i = 0, n = visible.size(); i < n; i++) {
+            NodeView nv = visible.get(i);
+            drawDisc(batch, nv.getX(), nv.getY(), radius, nodeColor);
+        }
+    }
+
+    /** Disco de un subárbol agrupado ({@code cluster}) o de un nodo suelto en la vista agrupada. */
+    public void drawDisc(Batch batch, float x, float y, float radius, boolean cluster) {
+        drawDisc(batch, x, y, radius, cluster ? clusterColor : nodeColor);
+    }
+
+    private void drawDisc(Batch batch, float x, float y, float radius, float color) {
+        fillQuad(scratch, x, y, radius, color);
+        batch.draw(circle, scratch, 0, QUAD_FLOATS);
+    }
+
+    /** Quad centrado en (x, y), en el orden de vértices de SpriteBatch. */
+    private static void fillQuad(float[] v, float x, float y, float radius, float color) {
+        float x0 = x - radius, y0 = y - radius, x1 = x + radius, y1 = y + radius;
+        v[0] = x0;  v[1] = y0;  v[2] = color;  v[3] = 0f;  v[4] = 1f;
+        v[5] = x0;  v[6] = y1;  v[7] = color;  v[8] = 0f;  v[9] = 0f;
+        v[10] = x1; v[11] = y1; v[12] = color; v[13] = 1f; v[14] = 0f;
+        v[15] = x1; v[16] = y0; v[17] = color; v[18] = 1f; v[19] = 1f;
+    }
+
+    @Override
+    public void dispose() {
+        circle.dispose();
+    }
+}
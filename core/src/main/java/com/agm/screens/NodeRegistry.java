@@ -0,0 +1,68 @@
+package com.agm.screens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registro de NodeView indexado por handle de persona (un array directo, sin hashing).
+ * Búsqueda, alta y baja en O(1); el orden de iteración es el de inserción salvo tras una baja,
+ * que mueve el último nodo al hueco libre.
+ */
+public class NodeRegistry {
+    private final List<NodeView> nodes = new ArrayList<>();
+    private NodeView[] byHandle = new NodeView[64];
+
+    /** Registra el nodo; si ya había uno para la misma persona lo reemplaza en su posición. */
+    public void add(NodeView nv) {
+        int handle = nv.getHandle();
+        if (handle >= byHandle.length) byHandle = Arrays.copyOf(byHandle, Math.max(handle + 1, byHandle.length * 2));
+        NodeView previous = byHandle[handle];
+        byHandle[handle] = nv;
+        if (previous != null) {
+            nv.registryIndex = previous.registryIndex;
+            previous.registryIndex = -1;
+            nodes.set(nv.registryIndex, nv);
+            return;
+        }
+        nv.registryIndex = nodes.size();
+        nodes.add(nv);
+    }
+
+    public NodeView remove(int handle) {
+        NodeView nv = getByHandle(handle);
+        if (nv == null) return null;
+        byHandle[handle] = null;
+        int idx = nv.registryIndex;
+        NodeView last = nodes.remove(nodes.size() - 1);
+        if (last != nv) {
+            nodes.set(idx, last);
+            last.registryIndex = idx;
+        }
+        nv.registryIndex = -1;
+        return nv;
+    }
+
+    public NodeView getByHandle(int handle) {
+        return handle >= 0 && handle < byHandle.length ? byHandle[handle] : null;
+    }
+
+    /** Acceso por posición, para recorrer sin reservar iteradores. */
+    public NodeView get(int index) {
+        return nodes.get(index);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public void clear() {
+        for (int i = 0, n = nodes.size(); i < n; i++) nodes.get(i).registryIndex = -1;
+        nodes.clear();
+        Arrays.fill(byHandle, null);
+    }
+}
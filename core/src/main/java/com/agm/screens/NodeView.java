@@ -1,34 +1,59 @@
 package com.agm.screens;
 
+import com.agm.model.FamilyTree;
 import com.agm.model.Person;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 
 public class NodeView {
-    private final Person person;
+    private final FamilyTree tree;
+    private final int handle;
     private float x, y;
     public static final float RADIUS = 75f;
+    int registryIndex = -1;   // posición dentro de NodeRegistry
 
-    public NodeView(Person person, float x, float y) {
-        this.person = person;
+    // Etiqueta del nombre ya medida; se rehace sólo si cambia el nombre o la escala de la fuente
+    private final GlyphLayout label = new GlyphLayout();
+    private int labelRevision = -1;
+    private float labelScale = Float.NaN;
+
+    // Vértices del círculo para NodeBatchRenderer; se rehacen sólo al cambiar la posición
+    final float[] quad = new float[NodeBatchRenderer.QUAD_FLOATS];
+    boolean quadDirty = true;
+
+    /** La vista sólo guarda el handle: los datos se piden al árbol, que puede tenerlos paginados en disco. */
+    public NodeView(FamilyTree tree, int handle, float x, float y) {
+        this.tree = tree;
+        this.handle = handle;
         this.x = x;
         this.y = y;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
+    public String getPersonId() {
+        return tree.idOf(handle);
+    }
+
+    /** Datos de la persona; en modo paginado pueden cargarse del disco en esta llamada. */
     public Person getPerson() {
-        return person;
+        return tree.getPersonByHandle(handle);
     }
     public float getX() { return x; }
     public float getY() { return y; }
 
-    /** Dibuja el nodo; si está seleccionado dibuja un anillo exterior */
-    public void draw(ShapeRenderer sr, boolean selected) {
-        if (selected) {
-            sr.setColor(Color.YELLOW);
-            sr.circle(x, y, RADIUS + 6);
+    /** Devuelve la etiqueta cacheada, re-midiéndola si la persona o la fuente han cambiado */
+    public GlyphLayout getLabel(BitmapFont font) {
+        float scale = font.getData().scaleX;
+        Person person = getPerson();
+        if (labelRevision != person.getNameRevision() || labelScale != scale) {
+            label.setText(font, person.getFirstName());
+            labelRevision = person.getNameRevision();
+            labelScale = scale;
         }
-        sr.setColor(Color.FIREBRICK);
-        sr.circle(x, y, RADIUS);
+        return label;
     }
 
     /** True si el punto (px,py) está dentro del radio */
@@ -37,7 +62,9 @@ public class NodeView {
         return dx*dx + dy*dy <= RADIUS*RADIUS;
     }
     public void setPosition(float x, float y) {
+        if (x == this.x && y == this.y) return;
         this.x = x;
         this.y = y;
+        quadDirty = true;
     }
 }
@@ -0,0 +1,116 @@
+package com.agm.screens;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.List;
+
+/**
+ * Rejilla uniforme sobre las posiciones de los NodeView (por centro del nodo).
+ * Resuelve consultas de punto (hit test) y de rectángulo (culling, selección por área)
+ * visitando sólo las celdas afectadas.
+ */
+public class SpatialGrid {
+    private final float cellSize;
+    private final LongMap<Array<NodeView>> cells = new LongMap<>();
+    private final Array<Array<NodeView>> freeCells = new Array<>();
+    private int size;
+
+    /** @param cellSize lado de la celda en mundo; debe ser al menos el diámetro de un nodo */
+    public SpatialGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /** Reconstruye la rejilla completa con las posiciones actuales. */
+    public void rebuild(NodeRegistry nodes) {
+        clear();
+        for (int i = 0, n = nodes.size(); i < n; i++) insert(nodes.get(i));
+    }
+
+    public void clear() {
+        for (LongMap.Entry<Array<NodeView>> e : cells.entries()) {
+            e.value.clear();
+            freeCells.add(e.value);
+        }
+        cells.clear();
+        size = 0;
+    }
+
+    public void insert(NodeView nv) {
+        long key = key(cell(nv.getX()), cell(nv.getY()));
+        Array<NodeView> bucket = cells.get(key);
+        if (bucket == null) {
+            bucket = freeCells.size > 0 ? freeCells.pop() : new Array<NodeView>(false, 8);
+            cells.put(key, bucket);
+        }
+        bucket.add(nv);
+        size++;
+    }
+
+    public void remove(NodeView nv, float x, float y) {
+        long key = key(cell(x), cell(y));
+        Array<NodeView> bucket = cells.get(key);
+        if (bucket == null || !bucket.removeValue(nv, true)) return;
+        size--;
+        if (bucket.size == 0) freeCells.add(cells.remove(key));
+    }
+
+    /** Actualiza la celda de un nodo que estaba en (oldX, oldY) y ya tiene su nueva posición. */
+    public void move(NodeView nv, float oldX, float oldY) {
+        if (cell(oldX) == cell(nv.getX()) && cell(oldY) == cell(nv.getY())) return;
+        remove(nv, oldX, oldY);
+        insert(nv);
+    }
+
+    /**
+     * Nodo cuyo círculo contiene el punto. Si varios se solapan gana el registrado más tarde,
+     * igual que el recorrido inverso de la lista.
+     */
+    public NodeView queryPoint(float x, float y) {
+        float r = NodeView.RADIUS;
+        int cx0 = cell(x - r), cx1 = cell(x + r);
+        int cy0 = cell(y - r), cy1 = cell(y + r);
+        NodeView best = null;
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                Array<NodeView> bucket = cells.get(key(cx, cy));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    NodeView nv = bucket.get(i);
+                    if (nv.contains(x, y) && (best == null || nv.registryIndex > best.registryIndex)) best = nv;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Añade a {@code out} los nodos cuyo centro cae dentro del rectángulo. No vacía {@code out}. */
+    public void queryRect(float minX, float minY, float maxX, float maxY, List<NodeView> out) {
+        int cx0 = cell(minX), cx1 = cell(maxX);
+        int cy0 = cell(minY), cy1 = cell(maxY);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                Array<NodeView> bucket = cells.get(key(cx, cy));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    NodeView nv = bucket.get(i);
+                    float x = nv.getX(), y = nv.getY();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) out.add(nv);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    /** Clave de la celda (cx, cy); la comparte la rejilla de ConnectorCache. */
+    static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
@@ -0,0 +1,234 @@
+package com.agm.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Capa estática del árbol (conexiones, nodos y nombres) pre-renderizada en teselas de mundo, cada
+ * una en su FrameBuffer. Las teselas se generan para una serie fija de niveles de zoom y al mover
+ * la cámara sólo se recomponen las ya hechas; las que faltan o están invalidadas se dibujan al
+ * necesitarse. Se invalidan por región cuando cambia la escena y, al llegar al límite de memoria,
+ * se reutiliza el FrameBuffer de la tesela usada hace más tiempo.
+ */
+public class TileCache implements Disposable {
+    /** Dibuja la escena vista por la cámara de una tesela, con el FrameBuffer ya activo y limpio. */
+    public interface Painter {
+        void paint(OrthographicCamera cam, LodPolicy.Tier tier, float zoom);
+    }
+
+    /** Lado de la textura de cada tesela; en pantalla mide esto mismo (±10 %) al componerse. */
+    public static final int TILE_PIXELS = 512;
+    private static final long BYTES_PER_TILE = (long) TILE_PIXELS * TILE_PIXELS * 4;
+    private static final int LEVELS_PER_OCTAVE = 4;   // de un nivel al siguiente el zoom cambia ×1.19
+    private static final double LN2 = Math.log(2);
+
+    // Clave: nivel (8 bits), LOD (2 bits) y columna y fila de la tesela (26 bits cada una)
+    private static final int COORD_BITS = 26;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    private final int maxTiles;
+    private final Color background;
+    private final LongMap<Tile> byKey = new LongMap<>();
+    private final Array<Tile> tiles = new Array<>(false, 32);
+    private final Array<Tile> frameTiles = new Array<>(false, 32);
+    private final OrthographicCamera tileCam = new OrthographicCamera(TILE_PIXELS, TILE_PIXELS);
+    private long frame;
+    private int paintedLastFrame;
+
+    /**
+     * @param maxBytes   memoria de textura para las teselas; se respeta salvo que la vista
+     *                   necesite en un mismo frame más teselas de las que caben
+     * @param background color con el que se limpia cada tesela antes de dibujarla
+     */
+    public TileCache(long maxBytes, Color background) {
+        this.maxTiles = (int) Math.max(1, maxBytes / BYTES_PER_TILE);
+        this.background = new Color(background);
+    }
+
+    /**
+     * Compone en el batch las teselas que cubren la vista de la cámara, dibujando antes las que
+     * falten. Hay que llamarlo fuera de begin()/end() del batch; deja su proyección en la de la cámara.
+     */
+    public void draw(Batch batch, OrthographicCamera cam, LodPolicy.Tier tier, Painter painter) {
+        frame++;
+        paintedLastFrame = 0;
+        int level = levelFor(cam.zoom);
+        float zoom = zoomOf(level);
+        float size = TILE_PIXELS * zoom;
+        float halfW = cam.viewportWidth * cam.zoom / 2f;
+        float halfH = cam.viewportHeight * cam.zoom / 2f;
+        int tx0 = MathUtils.floor((cam.position.x - halfW) / size);
+        int tx1 = MathUtils.floor((cam.position.x + halfW) / size);
+        int ty0 = MathUtils.floor((cam.position.y - halfH) / size);
+        int ty1 = MathUtils.floor((cam.position.y + halfH) / size);
+
+        // Primero se generan las teselas: un FrameBuffer no puede activarse con el batch abierto
+        frameTiles.clear();
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                Tile tile = acquire(level, tier, tx, ty, size);
+                if (tile.dirty) paint(tile, tier, zoom, painter);
+                frameTiles.add(tile);
+            }
+        }
+        trim();
+
+        batch.setProjectionMatrix(cam.combined);
+        batch.disableBlending();
+        batch.begin();
+        for (int i = 0; i < frameTiles.size; i++) {
+            Tile tile = frameTiles.get(i);
+            batch.draw(tile.region, tile.minX, tile.minY, size, size);
+        }
+        batch.end();
+        batch.enableBlending();
+    }
+
+    /** Marca para redibujar las teselas (de cualquier nivel) que tocan el rectángulo dado en mundo. */
+    public void invalidate(float minX, float minY, float maxX, float maxY) {
+        for (int i = 0; i < tiles.size; i++) {
+            Tile tile = tiles.get(i);
+            if (maxX >= tile.minX && minX <= tile.maxX && maxY >= tile.minY && minY <= tile.maxY) {
+                tile.dirty = true;
+            }
+        }
+    }
+
+    /** Marca para redibujar todas las teselas de un nivel de detalle. */
+    public void invalidate(LodPolicy.Tier tier) {
+        for (int i = 0; i < tiles.size; i++) {
+            Tile tile = tiles.get(i);
+            if (tile.tier == tier) tile.dirty = true;
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < tiles.size; i++) tiles.get(i).dirty = true;
+    }
+
+    public int getTileCount() {
+        return tiles.size;
+    }
+
+    public long getMemoryBytes() {
+        return tiles.size * BYTES_PER_TILE;
+    }
+
+    /** Teselas que hubo que dibujar en el último draw; 0 si el frame sólo recompuso. */
+    public int getPaintedLastFrame() {
+        return paintedLastFrame;
+    }
+
+    /** Nivel cuyo zoom es el más cercano (en escala logarítmica) al de la cámara. */
+    static int levelFor(float zoom) {
+        return (int) Math.round(Math.log(zoom) / LN2 * LEVELS_PER_OCTAVE);
+    }
+
+    static float zoomOf(int level) {
+        return (float) Math.pow(2, level / (double) LEVELS_PER_OCTAVE);
+    }
+
+    private static long key(int level, LodPolicy.Tier tier, int tx, int ty) {
+        return ((long) (level & 0xFF) << (2 + 2 * COORD_BITS))
+            | ((long) tier.ordinal() << (2 * COORD_BITS))
+            | ((tx & COORD_MASK) << COORD_BITS)
+            | (ty & COORD_MASK);
+    }
+
+    private Tile acquire(int level, LodPolicy.Tier tier, int tx, int ty, float size) {
+        long key = key(level, tier, tx, ty);
+        Tile tile = byKey.get(key);
+        if (tile == null) {
+            tile = tiles.size < maxTiles ? null : evictOldest();
+            if (tile == null) {
+                tile = new Tile();
+                tiles.add(tile);
+            }
+            tile.key = key;
+            tile.tier = tier;
+            tile.minX = tx * size;
+            tile.minY = ty * size;
+            tile.maxX = tile.minX + size;
+            tile.maxY = tile.minY + size;
+            tile.dirty = true;
+            byKey.put(key, tile);
+        }
+        tile.lastUsed = frame;
+        return tile;
+    }
+
+    /** Saca del índice la tesela usada hace más tiempo, sin contar las de este frame; null si no hay. */
+    private Tile evictOldest() {
+        Tile oldest = null;
+        for (int i = 0; i < tiles.size; i++) {
+            Tile tile = tiles.get(i);
+            if (tile.lastUsed < frame && (oldest == null || tile.lastUsed < oldest.lastUsed)) oldest = tile;
+        }
+        if (oldest != null) byKey.remove(oldest.key);
+        return oldest;
+    }
+
+    /** Si un frame necesitó superar el límite, libera en cuanto se pueda las teselas sobrantes. */
+    private void trim() {
+        while (tiles.size > maxTiles) {
+            Tile tile = evictOldest();
+            if (tile == null) return;
+            tiles.removeValue(tile, true);
+            tile.dispose();
+        }
+    }
+
+    private void paint(Tile tile, LodPolicy.Tier tier, float zoom, Painter painter) {
+        if (tile.fbo == null) {
+            tile.fbo = new FrameBuffer(Pixmap.Format.RGBA8888, TILE_PIXELS, TILE_PIXELS, false);
+            tile.region = new TextureRegion(tile.fbo.getColorBufferTexture());
+            tile.region.flip(false, true);   // las texturas de un FrameBuffer quedan invertidas en vertical
+        }
+        tileCam.zoom = zoom;
+        tileCam.position.set((tile.minX + tile.maxX) / 2f, (tile.minY + tile.maxY) / 2f, 0);
+        tileCam.update();
+
+        tile.fbo.begin();
+        Gdx.gl.glClearColor(background.r, background.g, background.b, background.a);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        painter.paint(tileCam, tier, zoom);
+        tile.fbo.end();
+        tile.dirty = false;
+        paintedLastFrame++;
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < tiles.size; i++) tiles.get(i).dispose();
+        tiles.clear();
+        byKey.clear();
+        frameTiles.clear();
+    }
+
+    private static final class Tile implements Disposable {
+        long key;
+        LodPolicy.Tier tier;
+        float minX, minY, maxX, maxY;
+        long lastUsed;
+        boolean dirty = true;
+        FrameBuffer fbo;
+        TextureRegion region;
+
+        @Override
+        public void dispose() {
+            if (fbo != null) fbo.dispose();
+            fbo = null;
+            region = null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.agm.screens;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Descarta lo que queda fuera de la vista de la cámara antes de enviarlo a dibujar.
+ * Lleva la cuenta de nodos y conexiones visibles/descartados en el último frame.
+ *
+ * <p>Con nombres ({@link #setLabelFont}) cada nodo ocupa a lo ancho su círculo o su etiqueta, lo que
+ * sea mayor. La rejilla sólo sabe de centros, así que se consulta con la media anchura más grande
+ * medida hasta ahora; si una etiqueta nueva la supera, {@link #takeWidened()} lo avisa para que se
+ * repinte lo que se pintó con un margen menor.
+ */
+public class ViewportCuller {
+    private static final long LOG_INTERVAL_MS = 1000;
+
+    // Margen de partida para la rejilla: etiquetas algo más anchas que el círculo
+    static final float LABEL_SLACK = 60f;
+    private static final float RING = 6f;   // anillo de selección alrededor del círculo
+
+    private final float nameOffset;
+    private BitmapFont labelFont;    // null: no se dibujan nombres
+    private float maxHalfWidth = NodeView.RADIUS + LABEL_SLACK;
+    private boolean widened;
+    private final List<NodeView> visibleNodes = new ArrayList<>();
+    private float minX, minY, maxX, maxY;
+
+    private int visibleNodeCount, culledNodeCount;
+    private int visibleEdgeCount, culledEdgeCount;
+    private long lastLogTime;
+
+    public ViewportCuller(float nameOffset) {
+        this.nameOffset = nameOffset;
+    }
+
+    /** Toma los límites en mundo de la cámara para el frame actual y reinicia los contadores. */
+    public void begin(OrthographicCamera cam) {
+        float halfW = cam.viewportWidth * cam.zoom / 2f;
+        float halfH = cam.viewportHeight * cam.zoom / 2f;
+        minX = cam.position.x - halfW;
+        maxX = cam.position.x + halfW;
+        minY = cam.position.y - halfH;
+        maxY = cam.position.y + halfH;
+        visibleNodeCount = culledNodeCount = 0;
+        visibleEdgeCount = culledEdgeCount = 0;
+    }
+
+    /** True si el rectángulo dado (en mundo) toca la vista. */
+    public boolean overlaps(float x0, float y0, float x1, float y1) {
+        return x1 >= minX && x0 <= maxX && y1 >= minY && y0 <= maxY;
+    }
+
+    /** Fuente de los nombres que se van a dibujar, o null si en este nivel de detalle no hay nombres. */
+    public void setLabelFont(BitmapFont font) {
+        this.labelFont = font;
+    }
+
+    /** Media anchura del nodo con su anillo y, si se dibujan nombres, su etiqueta. */
+    public float halfWidth(NodeView nv) {
+        return halfWidth(nv, labelFont);
+    }
+
+    /** Como {@link #halfWidth(NodeView)} con la etiqueta medida en {@code font} (null: sin etiqueta). */
+    public float halfWidth(NodeView nv, BitmapFont font) {
+        float halfW = NodeView.RADIUS + RING;
+        if (font == null) return halfW;
+        halfW = Math.max(halfW, nv.getLabel(font).width / 2f);
+        if (halfW > maxHalfWidth) {
+            maxHalfWidth = halfW;
+            widened = true;
+        }
+        return halfW;
+    }
+
+    /** True (una vez) si desde la última llamada apareció una etiqueta más ancha que el margen de la rejilla. */
+    public boolean takeWidened() {
+        boolean result = widened;
+        widened = false;
+        return result;
+    }
+
+    /** True si el nodo, con su anillo de selección y su etiqueta, toca la vista. */
+    public boolean isVisible(NodeView nv) {
+        float halfW = halfWidth(nv);
+        return overlaps(nv.getX() - halfW, nv.getY() - NodeView.RADIUS - RING,
+            nv.getX() + halfW, nv.getY() + NodeView.RADIUS + nameOffset);
+    }
+
+    /** Devuelve los nodos visibles consultando sólo las celdas de la rejilla que cubren la vista; la lista se reutiliza. */
+    public List<NodeView> cullNodes(SpatialGrid grid) {
+        visibleNodes.clear();
+        float halfW = labelFont == null ? NodeView.RADIUS + RING : maxHalfWidth;
+        grid.queryRect(minX - halfW, minY - NodeView.RADIUS - nameOffset,
+            maxX + halfW, maxY + NodeView.RADIUS + RING, visibleNodes);
+        // La rejilla filtra por centro; se afina con la caja real del nodo
+        for (int i = visibleNodes.size() - 1; i >= 0; i--) {
+            if (!isVisible(visibleNodes.get(i))) visibleNodes.remove(i);
+        }
+        visibleNodeCount = visibleNodes.size();
+        culledNodeCount = grid.size() - visibleNodeCount;
+        return visibleNodes;
+    }
+
+    public void recordEdges(int visible, int culled) {
+        visibleEdgeCount += visible;
+        culledEdgeCount += culled;
+    }
+
+    /** Vuelca los contadores al log (nivel debug) como mucho una vez por segundo. */
+    public void logStats() {
+        if (Gdx.app.getLogLevel() < Application.LOG_DEBUG) return;
+        long now = TimeUtils.millis();
+        if (now - lastLogTime < LOG_INTERVAL_MS) return;
+        lastLogTime = now;
+        Gdx.app.debug("Culling", "nodos " + visibleNodeCount + " visibles / " + culledNodeCount + " descartados, "
+            + "conexiones " + visibleEdgeCount + " visibles / " + culledEdgeCount + " descartadas");
+    }
+
+    public float getMinX() { return minX; }
+    public float getMaxX() { return maxX; }
+    public float getMinY() { return minY; }
+    public float getMaxY() { return maxY; }
+
+    public int getVisibleNodeCount() { return visibleNodeCount; }
+    public int getCulledNodeCount() { return culledNodeCount; }
+    public int getVisibleEdgeCount() { return visibleEdgeCount; }
+    public int getCulledEdgeCount() { return culledEdgeCount; }
+}
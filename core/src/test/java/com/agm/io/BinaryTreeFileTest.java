@@ -0,0 +1,98 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BinaryTreeFileTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static ByteBuffer toBinary(FamilyTree tree) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTreeWriter.write(tree, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        FamilyTree loaded = new FamilyTree();
+        new BinaryTreeFile(toBinary(tree)).loadInto(loaded);
+        TreeFixtures.assertSameTree(tree, loaded);
+    }
+
+    @Test
+    public void readsSinglePersonsWithoutLoading() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        BinaryTreeFile file = new BinaryTreeFile(toBinary(tree));
+
+        assertEquals(tree.getPersonCount(), file.getPersonCount());
+        assertEquals(tree.getRelationCount(), file.getRelationCount());
+        for (int i = 0; i < file.getPersonCount(); i++) {
+            Person p = file.readPerson(i);
+            assertEquals(p.getId(), file.getPersonId(i));
+            TreeFixtures.assertSamePerson(tree.getPersonOrNull(p.getId()), p);
+        }
+    }
+
+    @Test
+    public void pagedStoreMatchesFullLoad() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        PagedPersonStore store = new PagedPersonStore(new BinaryTreeFile(toBinary(tree)), 2);
+        FamilyTree paged = new FamilyTree(store);
+        store.loadInto(paged);
+
+        TreeFixtures.assertSameTree(tree, paged);
+        store.clear();
+        assertEquals(0, store.size());
+        assertNull(store.get(0));
+    }
+
+    @Test
+    public void converterRoundTrip() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        TreeJsonWriter.write(tree, json);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        TreeFormatConverter.jsonToBinary(new ByteArrayInputStream(json.toByteArray()), binary);
+        ByteArrayOutputStream back = new ByteArrayOutputStream();
+        TreeFormatConverter.binaryToJson(ByteBuffer.wrap(binary.toByteArray()), back);
+
+        FamilyTree reread = new FamilyTree();
+        TreeJsonReader.read(new ByteArrayInputStream(back.toByteArray()), reread);
+        TreeFixtures.assertSameTree(tree, reread);
+    }
+
+    @Test
+    public void convertsFilesByExtension() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        File json = new File(folder.getRoot(), "familytree.json");
+        File binary = new File(folder.getRoot(), "familytree.agmb");
+        File back = new File(folder.getRoot(), "copia.json");
+        AtomicFiles.write(json, tree, TreeJsonWriter::write);
+
+        TreeFormatConverter.convert(json, binary);
+        TreeFormatConverter.convert(binary, back);
+
+        FamilyTree reread = new FamilyTree();
+        try (InputStream in = new FileInputStream(back)) {
+            TreeJsonReader.read(in, reread);
+        }
+        TreeFixtures.assertSameTree(tree, reread);
+    }
+}
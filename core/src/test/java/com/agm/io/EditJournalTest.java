@@ -0,0 +1,184 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EditJournalTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File journalFile;
+    private SnapshotGenerations snapshots;
+
+    // Disco simulado: el último canal abierto y si se deja abrir otro
+    private final AtomicBoolean broken = new AtomicBoolean();
+    private final AtomicReference<FileChannel> opened = new AtomicReference<>();
+
+    @Before
+    public void setUp() {
+        TestApplication.install();
+        journalFile = new File(folder.getRoot(), "familytree.journal");
+        snapshots = new SnapshotGenerations(new File(folder.getRoot(), "familytree.json"));
+    }
+
+    private EditJournal openJournal(FamilyTree tree) {
+        EditJournal journal = new EditJournal(journalFile, 0, tree.copy(), 1000) {
+            @Override
+            FileChannel openChannel(File file) throws IOException {
+                if (broken.get()) throw new IOException("disco lleno");
+                FileChannel channel = super.openChannel(file);
+                opened.set(channel);
+                return channel;
+            }
+        };
+        tree.addListener(journal);
+        return journal;
+    }
+
+    /** Instantánea vigente + replay del diario, como al cargar el editor. */
+    private FamilyTree reload() throws IOException {
+        FamilyTree tree = new FamilyTree();
+        File current = new SnapshotGenerations(new File(folder.getRoot(), "familytree.json")).getCurrent();
+        if (current != null) {
+            try (InputStream in = new FileInputStream(current)) {
+                TreeJsonReader.read(in, tree);
+            }
+        }
+        EditJournal.replay(journalFile, tree);
+        return tree;
+    }
+
+    private static void rename(FamilyTree tree, String id, String firstName) {
+        Person p = tree.getPersonOrNull(id);
+        p.setFirstName(firstName);
+        tree.personChanged(p);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue("tiempo de espera agotado", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void editsAfterFailureSurviveReload() throws Exception {
+        FamilyTree tree = new FamilyTree();
+        tree.addPerson(new Person("X", "X", "", null, null, ""));
+        snapshots.write(tree, TreeJsonWriter::write);
+
+        EditJournal journal = openJournal(tree);
+        rename(tree, "X", "A");
+        await(() -> journalFile.length() > 0);
+
+        // El disco deja de aceptar escrituras: el canal abierto se cierra y no se deja reabrir
+        broken.set(true);
+        opened.get().close();
+        rename(tree, "X", "B");
+        await(journal::isFailed);
+
+        broken.set(false);
+        journal.close(snapshots, TreeJsonWriter::write);
+
+        assertEquals(0, journalFile.exists() ? journalFile.length() : 0);
+        assertEquals("B", reload().getPersonOrNull("X").getFirstName());
+    }
+
+    @Test
+    public void closeWithoutFailureKeepsJournal() throws Exception {
+        FamilyTree tree = new FamilyTree();
+        tree.addPerson(new Person("X", "X", "", null, null, ""));
+        snapshots.write(tree, TreeJsonWriter::write);
+        File before = snapshots.getCurrent();
+
+        EditJournal journal = openJournal(tree);
+        rename(tree, "X", "A");
+        journal.close(snapshots, TreeJsonWriter::write);
+
+        assertFalse(journal.isFailed());
+        assertEquals(before, snapshots.getCurrent());
+        assertTrue(journalFile.length() > 0);
+        assertEquals("A", reload().getPersonOrNull("X").getFirstName());
+    }
+
+    @Test
+    public void replayStopsAtTornTailAndJournalContinuesAfterIt() throws Exception {
+        FamilyTree tree = new FamilyTree();
+        EditJournal journal = openJournal(tree);
+        tree.addPerson(new Person("A", "A", "", null, null, ""));
+        tree.addPerson(new Person("B", "B", "", null, null, ""));
+        rename(tree, "A", "A2");
+        journal.close();
+        long fullLength = journalFile.length();
+        assertEquals(3, EditJournal.replay(journalFile, new FamilyTree()).getApplied());
+
+        // Cierre brusco a mitad del último registro
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            raf.setLength(fullLength - 3);
+        }
+        FamilyTree recovered = new FamilyTree();
+        EditJournal.Replay replay = EditJournal.replay(journalFile, recovered);
+        assertEquals(2, replay.getApplied());
+        assertTrue(replay.getValidLength() < fullLength - 3);
+        assertEquals(fullLength - 3 - replay.getValidLength(), replay.getDroppedBytes());
+        assertEquals("A", recovered.getPersonOrNull("A").getFirstName());
+
+        // Lo nuevo se anexa tras lo válido, no detrás de la cola rota
+        EditJournal reopened = new EditJournal(journalFile, replay.getValidLength(), recovered.copy(), 1000);
+        recovered.addListener(reopened);
+        recovered.addPerson(new Person("C", "C", "", null, null, ""));
+        reopened.close();
+
+        FamilyTree reloaded = new FamilyTree();
+        replay = EditJournal.replay(journalFile, reloaded);
+        assertEquals(3, replay.getApplied());
+        assertEquals(0, replay.getDroppedBytes());
+        assertEquals(3, reloaded.getPersonCount());
+        assertEquals("A", reloaded.getPersonOrNull("A").getFirstName());
+    }
+
+    @Test
+    public void replayStopsAtCorruptRecord() throws Exception {
+        FamilyTree tree = new FamilyTree();
+        EditJournal journal = openJournal(tree);
+        tree.addPerson(new Person("A", "A", "", null, null, ""));
+        tree.addPerson(new Person("B", "B", "", null, null, ""));
+        journal.close();
+        long firstEnd;
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            firstEnd = 8 + raf.readInt();
+            // Un byte cambiado en los datos del segundo registro: no cuadra el CRC
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        FamilyTree recovered = new FamilyTree();
+        EditJournal.Replay replay = EditJournal.replay(journalFile, recovered);
+        assertEquals(1, replay.getApplied());
+        assertEquals(firstEnd, replay.getValidLength());
+        assertEquals(1, recovered.getPersonCount());
+    }
+}
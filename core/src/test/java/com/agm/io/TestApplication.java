@@ -0,0 +1,24 @@
+package com.agm.io;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+import java.lang.reflect.Proxy;
+
+/** Gdx.app mínimo para las pruebas: el diario registra errores con Gdx.app y no hay backend. */
+final class TestApplication {
+    private TestApplication() {
+    }
+
+    static void install() {
+        if (Gdx.app != null) return;
+        Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(),
+            new Class<?>[]{Application.class}, (proxy, method, args) -> {
+                Class<?> type = method.getReturnType();
+                if (type == int.class) return 0;
+                if (type == long.class) return 0L;
+                if (type == boolean.class) return false;
+                return null;
+            });
+    }
+}
@@ -0,0 +1,60 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.RelationType;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/** Árbol de muestra para las pruebas de formatos y comparación campo a campo. */
+final class TreeFixtures {
+    private TreeFixtures() {
+    }
+
+    /** Fechas nulas y anteriores a 1970, comillas, saltos de línea, no ASCII y los tres tipos de relación. */
+    static FamilyTree sample() {
+        FamilyTree tree = new FamilyTree();
+        tree.addPerson(new Person("p1", "Ana", "García", LocalDate.of(1950, 3, 2), LocalDate.of(2010, 12, 31),
+            "Hola, \"mundo\"\nsegunda línea \\ fin"));
+        tree.addPerson(new Person("p2", "Luis", "", LocalDate.of(1975, 7, 14), null, ""));
+        tree.addPerson(new Person("p3", "Marta", "Núñez", null, null, "Ω"));
+        tree.addPerson(new Person("p4", "José", "García", LocalDate.of(1899, 1, 1), null, "García"));
+        tree.addRelation("p1", "p2", RelationType.PARENT);
+        tree.addRelation("p4", "p2", RelationType.PARENT);
+        tree.addRelation("p1", "p4", RelationType.SPOUSE);
+        tree.addRelation("p2", "p3", RelationType.SIBLING);
+        return tree;
+    }
+
+    /** Mismas personas (por id) y mismas relaciones en el mismo orden. */
+    static void assertSameTree(FamilyTree expected, FamilyTree actual) {
+        assertEquals(expected.getPersonCount(), actual.getPersonCount());
+        for (int h = 0, n = expected.getHandleCount(); h < n; h++) {
+            if (!expected.hasPerson(h)) continue;
+            Person e = expected.getPersonByHandle(h);
+            Person a = actual.getPersonOrNull(e.getId());
+            assertNotNull(e.getId(), a);
+            assertSamePerson(e, a);
+        }
+        assertEquals(expected.getRelationCount(), actual.getRelationCount());
+        for (int i = 0, n = expected.getRelationCount(); i < n; i++) {
+            assertEquals(expected.idOf(expected.getRelationFrom(i)), actual.idOf(actual.getRelationFrom(i)));
+            assertEquals(expected.idOf(expected.getRelationTo(i)), actual.idOf(actual.getRelationTo(i)));
+            assertEquals(expected.getRelationType(i), actual.getRelationType(i));
+        }
+        assertTrue(actual.getHandleCount() >= actual.getPersonCount());
+    }
+
+    static void assertSamePerson(Person expected, Person actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getBirthDate(), actual.getBirthDate());
+        assertEquals(expected.getDeathDate(), actual.getDeathDate());
+        assertEquals(expected.getQuote(), actual.getQuote());
+    }
+}
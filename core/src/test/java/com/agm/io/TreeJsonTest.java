@@ -0,0 +1,77 @@
+package com.agm.io;
+
+import com.agm.model.FamilyTree;
+import com.agm.model.Person;
+import com.agm.model.RelationType;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TreeJsonTest {
+    /** Lo que guardaba la versión anterior con {@code new Json().toJson(tree)} (dialecto minimal de libGDX). */
+    private static final String LEGACY_MINIMAL = "{people:{class:java.util.HashMap,"
+        + "p1:{id:p1,firstName:Ana,lastName:García,birthDate:{year:1950,month:3,day:2},"
+        + "deathDate:{year:2010,month:12,day:31},quote:\"Hola, \\\"mundo\\\"\"},"
+        + "p2:{id:p2,firstName:Luis,lastName:\"\",birthDate:{year:1975,month:7,day:14},deathDate:null,quote:\"\"}},"
+        + "relations:[{fromId:p1,toId:p2,type:PARENT}]}";
+
+    private static FamilyTree read(String json) throws IOException {
+        FamilyTree tree = new FamilyTree();
+        TreeJsonReader.read(new StringReader(json), tree);
+        return tree;
+    }
+
+    @Test
+    public void readsLegacyMinimalDialect() throws IOException {
+        FamilyTree tree = read(LEGACY_MINIMAL);
+
+        assertEquals(2, tree.getPersonCount());
+        Person ana = tree.getPersonOrNull("p1");
+        assertEquals("Ana", ana.getFirstName());
+        assertEquals("García", ana.getLastName());
+        assertEquals(LocalDate.of(1950, 3, 2), ana.getBirthDate());
+        assertEquals(LocalDate.of(2010, 12, 31), ana.getDeathDate());
+        assertEquals("Hola, \"mundo\"", ana.getQuote());
+        Person luis = tree.getPersonOrNull("p2");
+        assertEquals("", luis.getLastName());
+        assertNull(luis.getDeathDate());
+        assertEquals(1, tree.getRelationCount());
+        assertEquals(RelationType.PARENT, tree.getRelationType(0));
+        assertEquals(tree.handleOf("p2"), tree.getChildren(tree.handleOf("p1")).get(0));
+    }
+
+    @Test
+    public void legacyFileSurvivesRewrite() throws IOException {
+        FamilyTree legacy = read(LEGACY_MINIMAL);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeJsonWriter.write(legacy, out);
+
+        FamilyTree reread = new FamilyTree();
+        TreeJsonReader.read(new ByteArrayInputStream(out.toByteArray()), reread);
+        TreeFixtures.assertSameTree(legacy, reread);
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        FamilyTree tree = TreeFixtures.sample();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeJsonWriter.write(tree, out);
+
+        FamilyTree reread = read(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        TreeFixtures.assertSameTree(tree, reread);
+    }
+
+    @Test
+    public void emptyFileIsEmptyTree() throws IOException {
+        assertEquals(0, read("").getPersonCount());
+        assertEquals(0, read("{people:null,relations:null}").getPersonCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.agm.layout;
+
+import com.agm.model.FamilyTree;
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TreeLayoutTest {
+    private static final float LEAF_WIDTH = 100f;
+    private static final float VERTICAL_GAP = 250f;
+
+    private FamilyTree tree;
+    private TreeLayout layout;
+    private final IntArray out = new IntArray();
+    private final IntArray sizes = new IntArray();
+
+    @Before
+    public void setUp() {
+        tree = new FamilyTree();
+        layout = new TreeLayout(LEAF_WIDTH, VERTICAL_GAP);
+    }
+
+    private int h(String id) {
+        return tree.intern(id);
+    }
+
+    private int[] handles(String... ids) {
+        int[] result = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) result[i] = h(ids[i]);
+        return result;
+    }
+
+    @Test
+    public void placesChildrenBelowAndCentersParent() {
+        tree.addParentChild("R", "A");
+        tree.addParentChild("R", "B");
+        layout.layout(tree, h("R"), 0f, 0f);
+
+        assertEquals(2 * LEAF_WIDTH, layout.getSubtreeWidth(h("R")), 0f);
+        assertEquals(3, layout.getSubtreeSize(h("R")));
+        assertEquals(h("R"), layout.getParentHandle(h("A")));
+    }
+
+    @Test
+    public void keepsChildWhoseEdgeCrossesBottomOfView() {
+        // Raíz en (0, 0), hijos en y = -250 y nietos en -500; la vista acaba en y = -100
+        tree.addParentChild("R", "A");
+        tree.addParentChild("R", "B");
+        tree.addParentChild("A", "A1");
+        layout.layout(tree, h("R"), 0f, 0f);
+
+        layout.collectClusters(-1000f, 1000f, -100f, 0f, out, sizes);
+        assertArrayEquals(handles("R", "A", "B"), out.toArray());
+        assertArrayEquals(new int[]{1, 1, 1}, sizes.toArray());
+    }
+
+    @Test
+    public void keepsChildWhoseEdgeCrossesSideOfView() {
+        // Hijos en x = -100, 0 y 100; la vista es la franja [30, 40]: sólo la línea hacia C la cruza
+        tree.addParentChild("R", "A");
+        tree.addParentChild("R", "B");
+        tree.addParentChild("R", "C");
+        tree.addParentChild("C", "C1");
+        layout.layout(tree, h("R"), 0f, 0f);
+
+        layout.collectClusters(30f, 40f, -1000f, 0f, out, sizes);
+        assertArrayEquals(handles("R", "B", "C"), out.toArray());
+    }
+
+    @Test
+    public void collapsesNarrowSubtrees() {
+        tree.addParentChild("R", "A");
+        tree.addParentChild("R", "B");
+        tree.addParentChild("A", "A1");
+        tree.addParentChild("A", "A2");
+        layout.layout(tree, h("R"), 0f, 0f);
+
+        // R mide 300, A 200 y B 100: con 250 se agrupa A; B es una hoja y queda como nodo suelto
+        layout.collectClusters(-1000f, 1000f, -1000f, 250f, out, sizes);
+        assertArrayEquals(handles("R", "A", "B"), out.toArray());
+        assertArrayEquals(new int[]{1, 3, 1}, sizes.toArray());
+    }
+}
@@ -0,0 +1,216 @@
+package com.agm.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RelationQueriesTest {
+    private FamilyTree tree;
+    private RelationQueries queries;
+
+    @Before
+    public void setUp() {
+        tree = new FamilyTree();
+        queries = new RelationQueries(tree);
+    }
+
+    private int h(String id) {
+        return tree.intern(id);
+    }
+
+    private void parent(String parent, String child) {
+        tree.addParentChild(parent, child);
+    }
+
+    // ─── Ancestro común más cercano ────────────────────────────────────────────
+
+    @Test
+    public void lowestCommonAncestorOnSingleLines() {
+        parent("R", "A");
+        parent("R", "B");
+        parent("A", "A1");
+        parent("B", "B1");
+        parent("B1", "B2");
+        h("X");
+
+        assertEquals(h("R"), queries.lowestCommonAncestor(h("A1"), h("B2")));
+        assertEquals(h("R"), queries.lowestCommonAncestor(h("B2"), h("A1")));
+        assertEquals(h("B"), queries.lowestCommonAncestor(h("B2"), h("B")));
+        assertEquals(h("B"), queries.lowestCommonAncestor(h("B"), h("B2")));
+        assertEquals(h("A1"), queries.lowestCommonAncestor(h("A1"), h("A1")));
+        assertEquals(IdTable.NONE, queries.lowestCommonAncestor(h("A1"), h("X")));
+        assertEquals(IdTable.NONE, queries.lowestCommonAncestor(h("A1"), tree.getHandleCount()));
+        assertEquals(IdTable.NONE, queries.lowestCommonAncestor(-1, h("A1")));
+    }
+
+    @Test
+    public void lowestCommonAncestorDoesNotDependOnParentOrder() {
+        // C1 se crea bajo F y luego se le añade M; C2 sólo tiene a M
+        parent("F", "C1");
+        parent("M", "C2");
+        assertEquals(IdTable.NONE, queries.lowestCommonAncestor(h("C1"), h("C2")));
+
+        parent("M", "C1");
+        assertEquals(h("M"), queries.lowestCommonAncestor(h("C1"), h("C2")));
+        assertEquals(h("M"), queries.lowestCommonAncestor(h("C2"), h("C1")));
+    }
+
+    @Test
+    public void lowestCommonAncestorOfFullSiblingsIsOneOfTheParents() {
+        parent("F", "S1");
+        parent("M", "S1");
+        parent("F", "S2");
+        parent("M", "S2");
+        parent("GF", "F");
+
+        int lca = queries.lowestCommonAncestor(h("S1"), h("S2"));
+        assertTrue(lca == h("F") || lca == h("M"));
+    }
+
+    @Test
+    public void lowestCommonAncestorThroughSecondParentLine() {
+        // La línea principal de D sube por P (sin antepasados) y la de E por Q; sólo se unen por la madre
+        parent("P", "D");
+        parent("G", "D");
+        parent("Q", "E");
+        parent("G", "E");
+        parent("GG", "G");
+        parent("GG", "Q");
+
+        assertEquals(h("G"), queries.lowestCommonAncestor(h("D"), h("E")));
+        assertEquals(h("G"), queries.lowestCommonAncestor(h("D"), h("G")));
+        assertEquals(h("GG"), queries.lowestCommonAncestor(h("D"), h("Q")));
+    }
+
+    @Test
+    public void lowestCommonAncestorWithPedigreeCollapse() {
+        // X es progenitor directo de B y también antepasado de Z, que lo es de A y de B
+        parent("X", "Y");
+        parent("Y", "Z");
+        parent("Z", "A");
+        parent("X", "B");
+        parent("Z", "B");
+
+        assertEquals(h("Z"), queries.lowestCommonAncestor(h("A"), h("B")));
+        assertEquals(h("Z"), queries.lowestCommonAncestor(h("B"), h("A")));
+    }
+
+    @Test
+    public void commonAncestorsNearestFirst() {
+        parent("GF", "F");
+        parent("F", "S1");
+        parent("M", "S1");
+        parent("F", "S2");
+        parent("M", "S2");
+
+        Traversal it = queries.commonAncestors(h("S1"), h("S2"));
+        assertTrue(it.hasNext());
+        assertEquals(h("F"), it.nextInt());
+        assertEquals(1, it.getDepth());
+        assertEquals(h("M"), it.nextInt());
+        assertEquals(h("GF"), it.nextInt());
+        assertEquals(2, it.getDepth());
+        assertTrue(!it.hasNext());
+    }
+
+    @Test
+    public void lineageFollowsFirstParent() {
+        parent("F", "C");
+        parent("M", "C");
+        parent("GF", "F");
+
+        assertEquals(2, queries.getGeneration(h("C")));
+        assertEquals(h("F"), queries.lineageAncestor(h("C"), 1));
+        assertEquals(h("GF"), queries.lineageAncestor(h("C"), 2));
+        assertEquals(IdTable.NONE, queries.lineageAncestor(h("C"), 3));
+    }
+
+    // ─── Cadena de parentesco ──────────────────────────────────────────────────
+
+    @Test
+    public void kinshipBetweenCousins() {
+        parent("G", "P1");
+        parent("G", "P2");
+        parent("P1", "K1");
+        parent("P2", "K2");
+
+        KinshipPath path = queries.kinship(h("K1"), h("K2"));
+        assertNotNull(path);
+        assertEquals(4, path.getLength());
+        assertEquals(2, path.count(RelationStep.PARENT));
+        assertEquals(2, path.count(RelationStep.CHILD));
+        assertEquals(h("K1"), path.getHandle(0));
+        assertEquals(h("G"), path.getHandle(2));
+        assertEquals(h("K2"), path.getHandle(4));
+        assertValid(path);
+    }
+
+    @Test
+    public void kinshipReconstructsBothHalvesInOrder() {
+        // Cadena lineal de longitud par e impar, en los dos sentidos
+        for (int i = 0; i < 7; i++) parent("L" + i, "L" + (i + 1));
+
+        for (int length = 1; length <= 7; length++) {
+            KinshipPath up = queries.kinship(h("L" + length), h("L0"));
+            assertEquals(length, up.getLength());
+            assertEquals(length, up.count(RelationStep.PARENT));
+            for (int i = 0; i <= length; i++) assertEquals(h("L" + (length - i)), up.getHandle(i));
+            assertValid(up);
+
+            KinshipPath down = queries.kinship(h("L0"), h("L" + length));
+            assertEquals(length, down.count(RelationStep.CHILD));
+            for (int i = 0; i <= length; i++) assertEquals(h("L" + i), down.getHandle(i));
+            assertValid(down);
+        }
+    }
+
+    @Test
+    public void kinshipTakesShortestChain() {
+        // A y B son cónyuges y además primos: gana el paso directo
+        parent("G", "P1");
+        parent("G", "P2");
+        parent("P1", "A");
+        parent("P2", "B");
+        tree.addRelation(h("A"), h("B"), RelationType.SPOUSE);
+        tree.addRelation(h("B"), h("S"), RelationType.SIBLING);
+
+        KinshipPath path = queries.kinship(h("A"), h("B"));
+        assertEquals(1, path.getLength());
+        assertEquals(RelationStep.SPOUSE, path.getStep(0));
+
+        path = queries.kinship(h("A"), h("S"));
+        assertEquals(2, path.getLength());
+        assertEquals(RelationStep.SPOUSE, path.getStep(0));
+        assertEquals(RelationStep.SIBLING, path.getStep(1));
+        assertValid(path);
+
+        path = queries.kinship(h("P1"), h("S"));
+        assertEquals(3, path.getLength());
+        assertValid(path);
+    }
+
+    @Test
+    public void kinshipWithoutConnection() {
+        parent("G", "P1");
+        parent("G", "P2");
+        parent("P1", "K1");
+        parent("P2", "K2");
+        h("X");
+
+        assertNull(queries.kinship(h("K1"), h("X")));
+        assertNull(queries.kinship(h("K1"), h("K2"), RelationStep.PARENT));
+        assertEquals(0, queries.kinship(h("K1"), h("K1")).getLength());
+        assertNull(queries.kinship(-1, h("K1")));
+    }
+
+    /** Cada paso de la cadena lleva de verdad de una persona a la siguiente. */
+    private void assertValid(KinshipPath path) {
+        for (int i = 0; i < path.getLength(); i++) {
+            assertTrue(path.toString(), path.getStep(i).from(tree, path.getHandle(i)).contains(path.getHandle(i + 1)));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.agm.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TraversalTest {
+    private FamilyTree tree;
+    private RelationQueries queries;
+
+    @Before
+    public void setUp() {
+        tree = new FamilyTree();
+        queries = new RelationQueries(tree);
+    }
+
+    private int h(String id) {
+        return tree.intern(id);
+    }
+
+    /** R con hijos A y B; A con A1 y A2; B con B1. */
+    private void smallTree() {
+        tree.addParentChild("R", "A");
+        tree.addParentChild("R", "B");
+        tree.addParentChild("A", "A1");
+        tree.addParentChild("A", "A2");
+        tree.addParentChild("B", "B1");
+    }
+
+    @Test
+    public void breadthFirstByGenerations() {
+        smallTree();
+        Traversal it = queries.descendants(h("R"));
+        String[] expected = {"A", "B", "A1", "A2", "B1"};
+        int[] depths = {1, 1, 2, 2, 2};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(h(expected[i]), it.nextInt());
+            assertEquals(depths[i], it.getDepth());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void depthFirstPreorder() {
+        smallTree();
+        Traversal it = queries.depthFirst(h("R"), Integer.MAX_VALUE, RelationStep.CHILD);
+        String[] expected = {"A", "A1", "A2", "B", "B1"};
+        for (String id : expected) assertEquals(h(id), it.nextInt());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void maxDepthAndSteps() {
+        smallTree();
+        assertEquals(2, queries.breadthFirst(h("R"), 1, RelationStep.CHILD).stream().count());
+        // Sin pasos indicados va por todos: desde A1 llega a todo el árbol
+        assertEquals(5, queries.breadthFirst(h("A1"), Integer.MAX_VALUE).stream().count());
+        assertEquals(2, queries.ancestors(h("A1")).stream().count());
+    }
+
+    @Test
+    public void compactsLongQueuesWithoutLosingOrder() {
+        // Frontera de 5000 hijos y 5000 nietos: la cola se compacta dos veces por encima de 4096
+        int n = 5000;
+        int root = h("R");
+        for (int i = 0; i < n; i++) tree.addParentChild(root, h("C" + i));
+        for (int i = 0; i < n; i++) tree.addParentChild(h("C" + i), h("G" + i));
+
+        Traversal it = queries.descendants(root);
+        for (int i = 0; i < n; i++) {
+            assertEquals(h("C" + i), it.nextInt());
+            assertEquals(1, it.getDepth());
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(h("G" + i), it.nextInt());
+            assertEquals(2, it.getDepth());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void nextAfterEndFails() {
+        smallTree();
+        Traversal it = queries.descendants(h("B1"));
+        assertFalse(it.hasNext());
+        it.nextInt();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void failsWhenRelationsChange() {
+        smallTree();
+        Traversal it = queries.descendants(h("R"));
+        it.nextInt();
+        tree.addParentChild("B", "B2");
+        it.nextInt();
+    }
+}
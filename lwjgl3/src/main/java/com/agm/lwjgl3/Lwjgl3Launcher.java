@@ -3,6 +3,7 @@ package com.agm.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.agm.MainGame;
+import com.agm.model.PersonStorage;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
@@ -12,7 +13,12 @@ public class Lwjgl3Launcher {
     }
 
     private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new MainGame(), getDefaultConfiguration());
+        // -Dagm.storage=columnar guarda las personas en columnas en lugar de objetos
+        PersonStorage storage = "columnar".equalsIgnoreCase(System.getProperty("agm.storage"))
+            ? PersonStorage.COLUMNAR : PersonStorage.HEAP;
+        // -Dagm.personCache=N pagina las personas del binario con una caché de N (0: carga completa)
+        int personCache = Integer.getInteger("agm.personCache", 0);
+        return new Lwjgl3Application(new MainGame(new MappedBufferMapper(), storage, personCache), getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
@@ -0,0 +1,21 @@
+package com.agm.lwjgl3;
+
+import com.agm.io.BufferMapper;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** Mapea los ficheros en memoria con FileChannel: abrir un .agmb grande no copia nada al heap. */
+public class MappedBufferMapper implements BufferMapper {
+    @Override
+    public ByteBuffer map(FileHandle fh) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(fh.file(), "r");
+             FileChannel channel = raf.getChannel()) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}